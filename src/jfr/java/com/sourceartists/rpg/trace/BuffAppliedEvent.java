@@ -0,0 +1,26 @@
+package com.sourceartists.rpg.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.sourceartists.rpg.BuffApplied")
+@Label("Buff Applied")
+@Description("A buff became the hero's active buff")
+@Category({"RPG", "Combat"})
+public class BuffAppliedEvent extends Event {
+
+    @Label("Hero Id")
+    public long heroId;
+
+    @Label("Buff")
+    public String buff;
+
+    @Label("Buff Type")
+    public String buffType;
+
+    @Label("Superbuff")
+    public boolean superBuff;
+}
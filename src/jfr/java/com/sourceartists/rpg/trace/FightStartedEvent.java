@@ -0,0 +1,23 @@
+package com.sourceartists.rpg.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.sourceartists.rpg.FightStarted")
+@Label("Fight Started")
+@Description("A fight was handed to the fight scheduler")
+@Category({"RPG", "Combat"})
+public class FightStartedEvent extends Event {
+
+    @Label("Fight")
+    public String fight;
+
+    @Label("Fight Seed")
+    public long fightSeed;
+
+    @Label("Hero Id")
+    public long heroId;
+}
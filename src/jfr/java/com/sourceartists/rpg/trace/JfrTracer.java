@@ -0,0 +1,97 @@
+package com.sourceartists.rpg.trace;
+
+import com.sourceartists.rpg.model.SwingBatch;
+
+/**
+ * Records the game's custom events; loaded by {@link GameTrace} only when Flight Recorder is there.
+ * Events are filled in and committed only when the recording wants them.
+ */
+class JfrTracer implements Tracer {
+
+    @Override
+    public void fightStarted(String fight, long fightSeed, long heroId) {
+        FightStartedEvent event = new FightStartedEvent();
+
+        if(event.shouldCommit()){
+            event.fight = fight;
+            event.fightSeed = fightSeed;
+            event.heroId = heroId;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void buffApplied(long heroId, String buff, String buffType, boolean superBuff) {
+        BuffAppliedEvent event = new BuffAppliedEvent();
+
+        if(event.shouldCommit()){
+            event.heroId = heroId;
+            event.buff = buff;
+            event.buffType = buffType;
+            event.superBuff = superBuff;
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object lockpickAttemptStarted() {
+        LockpickAttemptEvent event = new LockpickAttemptEvent();
+        event.begin();
+
+        return event;
+    }
+
+    @Override
+    public void lockpickAttemptEnded(Object started, long heroId, String lock, boolean usedLockpicks
+            , int attempts, boolean opened) {
+        LockpickAttemptEvent event;
+
+        if(started != null){
+            event = (LockpickAttemptEvent) started;
+            event.end();
+        }else{
+            event = new LockpickAttemptEvent();
+        }
+
+        if(event.shouldCommit()){
+            event.heroId = heroId;
+            event.lock = lock;
+            event.usedLockpicks = usedLockpicks;
+            event.attempts = attempts;
+            event.opened = opened;
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object swingsStarted() {
+        SwingBatchResolvedEvent event = new SwingBatchResolvedEvent();
+        event.begin();
+
+        return event;
+    }
+
+    @Override
+    public void swingsResolved(Object started, SwingBatch swings) {
+        if(started == null){
+            return;
+        }
+
+        SwingBatchResolvedEvent event = (SwingBatchResolvedEvent) started;
+        event.end();
+
+        if(event.shouldCommit()){
+            int criticalSwings = 0;
+            for(int swing = 0; swing < swings.getResolved(); swing++){
+                if(swings.isCritical(swing)){
+                    criticalSwings++;
+                }
+            }
+
+            event.swings = swings.getResolved();
+            event.criticalSwings = criticalSwings;
+            event.deadly = swings.isDeadly();
+            event.commit();
+        }
+    }
+}
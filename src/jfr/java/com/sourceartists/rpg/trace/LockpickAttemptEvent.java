@@ -0,0 +1,29 @@
+package com.sourceartists.rpg.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.sourceartists.rpg.LockpickAttempt")
+@Label("Lockpick Attempt")
+@Description("A hero working a lock with the lockpicks of one kind")
+@Category({"RPG", "Lockpicking"})
+public class LockpickAttemptEvent extends Event {
+
+    @Label("Hero Id")
+    public long heroId;
+
+    @Label("Lock")
+    public String lock;
+
+    @Label("Used Lockpicks")
+    public boolean usedLockpicks;
+
+    @Label("Attempts")
+    public int attempts;
+
+    @Label("Opened")
+    public boolean opened;
+}
@@ -0,0 +1,23 @@
+package com.sourceartists.rpg.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.sourceartists.rpg.SwingBatchResolved")
+@Label("Swing Batch Resolved")
+@Description("One engine call resolving a batch of a hero's swings, up to the first deadly one")
+@Category({"RPG", "Combat"})
+public class SwingBatchResolvedEvent extends Event {
+
+    @Label("Swings")
+    public int swings;
+
+    @Label("Critical Swings")
+    public int criticalSwings;
+
+    @Label("Deadly")
+    public boolean deadly;
+}
@@ -0,0 +1,291 @@
+package com.sourceartists.rpg.controller;
+
+import com.sourceartists.rpg.engine.BuffExpiryWheel;
+import com.sourceartists.rpg.engine.DragonRaidCoordinator;
+import com.sourceartists.rpg.engine.Fight;
+import com.sourceartists.rpg.engine.FightEventBus;
+import com.sourceartists.rpg.engine.GameEngine;
+import com.sourceartists.rpg.engine.SiegeEngine;
+import com.sourceartists.rpg.engine.StrengthModifierTable;
+import com.sourceartists.rpg.engine.SuperBuffTable;
+import com.sourceartists.rpg.exception.DoesNotStandAChanceException;
+import com.sourceartists.rpg.exception.HeroIsAChickenExcpetion;
+import com.sourceartists.rpg.exception.HeroSlainedByDragonException;
+import com.sourceartists.rpg.metrics.GameMetrics;
+import com.sourceartists.rpg.model.*;
+import com.sourceartists.rpg.persistence.HeroJournal;
+import com.sourceartists.rpg.persistence.HeroStateFile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of every {@link GameController} entry point against a real {@link GameEngine}.
+ * <p>
+ * Run with {@code mvn -P jmh package && java -jar target/benchmarks.jar -prof gc}.
+ * {@code heroDies} is left out: the engine does not implement {@code hit} yet.
+ * <p>
+ * Heroes have no id, so nothing they do is journaled; only {@code levelUpJournaled} pays for the
+ * journal, fsync included. Fights run at most {@value #FIGHT_TICK_BUDGET} ticks per operation, since
+ * the engine never lands a deadly swing on the boss yet, and a castle holds out for about
+ * {@value #SIEGE_ROUNDS} volleys whatever the size of the army. The dragon's hoard is refilled
+ * every iteration with more than an iteration can steal.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameControllerBenchmark {
+
+    private static final int FIGHT_TICK_BUDGET = 64;
+    private static final int SIEGE_ROUNDS = 10;
+    private static final long HOARDED_TREASURES_PER_TYPE = 1L << 32;
+    private static final long HOARDED_GOLD = Long.MAX_VALUE / 4;
+
+    private GameController gameController;
+    private GameEngine gameEngine;
+    private BuffExpiryWheel buffExpiryWheel;
+    private Path journalFile;
+    private HeroJournal heroJournal;
+    private Path heroStateFilePath;
+    private HeroStateFile heroStateFile;
+    private Hero hero;
+    private Hero journaledHero;
+    private Dragon dragon;
+    private MightyDragon mightyDragon;
+
+    @Setup
+    public void setUp() throws IOException {
+        buffExpiryWheel = new BuffExpiryWheel();
+        buffExpiryWheel.start();
+        journalFile = Files.createTempFile("hero-journal", ".log");
+        heroJournal = new HeroJournal(journalFile, HeroJournal.DEFAULT_BATCH_SIZE);
+        heroStateFilePath = Files.createTempFile("hero-state", ".dat");
+        Files.delete(heroStateFilePath);
+        heroStateFile = HeroStateFile.open(heroStateFilePath, 1024);
+
+        gameEngine = new GameEngine();
+        gameEngine.startPrefetching();
+        gameController = new GameController();
+        inject(gameController, "gameEngine", gameEngine);
+        inject(gameController, "buffExpiryWheel", buffExpiryWheel);
+        inject(gameController, "siegeEngine", new SiegeEngine(gameEngine));
+        inject(gameController, "heroJournal", heroJournal);
+        inject(gameController, "heroStateFile", heroStateFile);
+        inject(gameController, "fightEventBus", new FightEventBus());
+        inject(gameController, "gameMetrics", new GameMetrics(new SimpleMeterRegistry()));
+        inject(gameController, "dragonRaidCoordinator", new DragonRaidCoordinator(gameEngine));
+        inject(gameController, "strengthModifiers", StrengthModifierTable.load());
+        gameController.setFightTickBudget(FIGHT_TICK_BUDGET);
+
+        hero = newHero();
+        journaledHero = newHero();
+        journaledHero.setId(1L);
+        mightyDragon = new MightyDragon();
+    }
+
+    /**
+     * A fresh dragon per iteration, hoarding more than the steal benchmarks can take in one.
+     */
+    @Setup(Level.Iteration)
+    public void fillHoard() {
+        dragon = new Dragon();
+        dragon.getHoard().addGold(HOARDED_GOLD);
+
+        for(TreasureType treasureType: TreasureType.values()){
+            dragon.getHoard().add(treasureType, HOARDED_TREASURES_PER_TYPE);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        gameEngine.stopPrefetching();
+        buffExpiryWheel.stop();
+        heroJournal.close();
+        Files.delete(journalFile);
+        heroStateFile.close();
+        Files.delete(heroStateFilePath);
+    }
+
+    private static void inject(Object target, String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+    @State(Scope.Thread)
+    public static class Looter {
+
+        @Param({"1", "100", "1000"})
+        public int lockpickCount;
+
+        private Hero hero;
+        private Chest chest;
+        private Castle castle;
+
+        @Setup
+        public void setUp() {
+            List<Lockpick> lockpicks = new ArrayList<>(lockpickCount);
+            for(int id = 0; id < lockpickCount; id++){
+                lockpicks.add(new Lockpick(id));
+            }
+
+            hero = newHero();
+            hero.setLockpicks(lockpicks);
+            chest = new Chest();
+            castle = new Castle();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Loot {
+
+        @Param({"1", "100", "10000"})
+        public int treasureCount;
+
+        private List<Treasure> treasures;
+
+        @Setup
+        public void setUp() {
+            TreasureType[] treasureTypes = TreasureType.values();
+            treasures = new ArrayList<>(treasureCount);
+            for(int treasure = 0; treasure < treasureCount; treasure++){
+                treasures.add(Treasure.of(treasureTypes[treasure % treasureTypes.length]));
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Army {
+
+        @Param({"1", "10", "1000"})
+        public int allyCount;
+
+        private Hero hero;
+
+        @Setup
+        public void setUp() {
+            List<Hero> allies = new ArrayList<>(allyCount);
+            for(int ally = 0; ally < allyCount; ally++){
+                allies.add(newHero());
+            }
+
+            hero = newHero();
+            hero.setAllies(allies);
+        }
+    }
+
+    /**
+     * {@link Castle#defenseStarted()} is not implemented yet, so the siege would otherwise never start.
+     * Its hit points last the army about {@value #SIEGE_ROUNDS} volleys.
+     */
+    private static class DefendedCastle extends Castle {
+
+        DefendedCastle(int allyCount) {
+            setHitPoints(SIEGE_ROUNDS * allyCount * (long) GameEngine.MAX_ALLY_DAMAGE / 2);
+        }
+
+        @Override
+        public boolean defenseStarted() {
+            return true;
+        }
+    }
+
+    private static Hero newHero() {
+        Hero hero = new Hero();
+        hero.setLevel(1);
+        hero.setMoraleLevel(1);
+        hero.setStrength(10);
+        hero.setEquippedWeapon(new Weapon());
+
+        List<Spell> spells = new ArrayList<>();
+        spells.add(new Spell());
+        hero.setSpells(spells);
+
+        return hero;
+    }
+
+    @Benchmark
+    public Hero levelUp() {
+        hero.setLevel(4);
+        hero.setActiveBuff(null);
+        gameController.levelUp(hero);
+
+        return hero;
+    }
+
+    @Benchmark
+    public Hero levelUpJournaled() {
+        journaledHero.setLevel(4);
+        journaledHero.setActiveBuff(null);
+        gameController.levelUp(journaledHero);
+
+        return journaledHero;
+    }
+
+    @Benchmark
+    public Hero openLootChest(Looter looter) {
+        looter.hero.setLockpickingLevel(10);
+        gameController.openLootChest(looter.hero, looter.chest);
+
+        return looter.hero;
+    }
+
+    @Benchmark
+    public Hero breakIntoCastleAndSteal(Looter looter) {
+        gameController.breakIntoCastleAndSteal(looter.hero, looter.castle);
+
+        return looter.hero;
+    }
+
+    @Benchmark
+    public Hero gainBuff() {
+        hero.setLevel(SuperBuffTable.DEFAULT_MIN_LEVEL);
+        hero.setMoraleLevel(SuperBuffTable.DEFAULT_MIN_MORALE);
+        hero.setActiveBuff(null);
+        gameController.gainBuff(hero, BuffType.OFFENSIVE);
+
+        return hero;
+    }
+
+    @Benchmark
+    public Fight<RuntimeException> fightTheBoss() {
+        return gameController.fightTheBoss(hero, new Boss());
+    }
+
+    @Benchmark
+    public Fight<RuntimeException> defendCastle(Army army) {
+        return gameController.defendCastle(army.hero, new DefendedCastle(army.allyCount));
+    }
+
+    @Benchmark
+    public boolean fightWithMightyDragon() throws DoesNotStandAChanceException {
+        return gameController.fightWithMightyDragon(hero, mightyDragon);
+    }
+
+    @Benchmark
+    public boolean stealGoldFromDragon() throws HeroSlainedByDragonException {
+        return gameController.stealGoldFromDragon(hero, dragon, 500);
+    }
+
+    @Benchmark
+    public boolean stealTreasureFromDragon(Loot loot) throws HeroIsAChickenExcpetion {
+        return gameController.stealTreasureFromDragon(hero, dragon, loot.treasures);
+    }
+
+    @Benchmark
+    public BigDecimal countLoot(Loot loot) {
+        return gameController.countLoot(loot.treasures, hero);
+    }
+}
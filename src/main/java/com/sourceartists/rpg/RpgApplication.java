@@ -0,0 +1,24 @@
+package com.sourceartists.rpg;
+
+import com.sourceartists.rpg.engine.StrengthModifierTable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+
+@SpringBootApplication
+public class RpgApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(RpgApplication.class, args);
+    }
+
+    /**
+     * Loaded once and shared by the game and the dragon fight simulator, so both apply the same modifiers.
+     */
+    @Bean
+    public StrengthModifierTable strengthModifierTable(
+            @Value("${rpg.strength-modifiers:" + StrengthModifierTable.DEFAULT_RESOURCE + "}") String resource) {
+        return StrengthModifierTable.load(resource);
+    }
+}
@@ -0,0 +1,155 @@
+package com.sourceartists.rpg.controller;
+
+import com.sourceartists.rpg.engine.FightEvent;
+import com.sourceartists.rpg.engine.FightEventBus;
+import com.sourceartists.rpg.engine.FightEventSubscription;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Server-sent stream of {@link FightEvent}s. Each client gets a bounded subscription on the
+ * {@link FightEventBus}; a shared pump checks every client each {@link #PUMP_INTERVAL_MILLIS} ms
+ * and hands its drain, at most {@link #MAX_EVENTS_PER_PUMP} events, to a bounded pool of
+ * {@link #SENDER_THREADS} sender threads of the stream's own, so a stuck send never takes a thread
+ * from the fights. A client whose previous drain is still queued or sending is skipped, so a slow
+ * client never holds up the others, and one stuck in a send for longer than
+ * {@link #SEND_TIMEOUT_MILLIS} ms after its drain started is disconnected.
+ * A client that cannot keep up loses the oldest events, the fights never wait for it. Dropped
+ * counts go out as {@code dropped} events.
+ */
+@RestController
+public class FightEventStream {
+
+    public static final long PUMP_INTERVAL_MILLIS = 100;
+    public static final int MAX_EVENTS_PER_PUMP = 256;
+    public static final long SEND_TIMEOUT_MILLIS = 5_000;
+    public static final int SENDER_THREADS = 4;
+    public static final int MAX_QUEUED_DRAINS = 1024;
+
+    @Autowired
+    private FightEventBus fightEventBus;
+
+    private final ExecutorService senders = new ThreadPoolExecutor(SENDER_THREADS, SENDER_THREADS
+            , 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(MAX_QUEUED_DRAINS), runnable -> {
+        Thread thread = new Thread(runnable, "fight-event-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ScheduledExecutorService pump = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "fight-event-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @GetMapping("/fight-events")
+    public SseEmitter fightEvents(@RequestParam(required = false) Long heroId){
+        SseEmitter emitter = new SseEmitter(0L);
+        Client client = new Client(emitter, fightEventBus.subscribe(FightEventBus.DEFAULT_BUFFER_SIZE
+                , event -> heroId == null || heroId.equals(event.getHeroId())));
+
+        client.pumping = pump.scheduleWithFixedDelay(client::pump
+                , PUMP_INTERVAL_MILLIS, PUMP_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        emitter.onCompletion(client::stop);
+        emitter.onTimeout(client::stop);
+
+        return emitter;
+    }
+
+    @PreDestroy
+    public void stop(){
+        pump.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    private class Client {
+
+        private final SseEmitter emitter;
+        private final FightEventSubscription subscription;
+        private final List<FightEvent> batch = new ArrayList<>(MAX_EVENTS_PER_PUMP);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // 0 while no drain is sending
+        private volatile long drainStartedNanos;
+        private volatile ScheduledFuture<?> pumping;
+        private long droppedSent;
+
+        Client(SseEmitter emitter, FightEventSubscription subscription) {
+            this.emitter = emitter;
+            this.subscription = subscription;
+        }
+
+        /**
+         * Runs on the pump thread and never sends anything itself.
+         */
+        void pump(){
+            if(!draining.compareAndSet(false, true)){
+                long started = drainStartedNanos;
+
+                // A drain still queued behind other clients has not started the clock yet.
+                if(started != 0
+                        && System.nanoTime() - started > TimeUnit.MILLISECONDS.toNanos(SEND_TIMEOUT_MILLIS)){
+                    stop();
+                    emitter.completeWithError(new IOException("Fight event client stopped reading"));
+                }
+                return;
+            }
+
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Every sender is busy and the queue is full; try again on the next pump.
+                draining.set(false);
+            }
+        }
+
+        private void drain(){
+            drainStartedNanos = System.nanoTime();
+
+            try {
+                long dropped = subscription.getDropped();
+                if(dropped != droppedSent){
+                    emitter.send(SseEmitter.event().name("dropped").data(dropped));
+                    droppedSent = dropped;
+                }
+
+                subscription.drainTo(batch, MAX_EVENTS_PER_PUMP);
+                for(FightEvent event: batch){
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the emitter already completed.
+                stop();
+            } finally {
+                batch.clear();
+                drainStartedNanos = 0;
+                draining.set(false);
+            }
+        }
+
+        void stop(){
+            subscription.close();
+
+            ScheduledFuture<?> scheduled = pumping;
+            if(scheduled != null){
+                scheduled.cancel(false);
+            }
+        }
+    }
+}
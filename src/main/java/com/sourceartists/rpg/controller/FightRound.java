@@ -0,0 +1,38 @@
+package com.sourceartists.rpg.controller;
+
+import com.sourceartists.rpg.engine.Fight;
+import com.sourceartists.rpg.engine.FightState;
+
+/**
+ * Progress of a fight after one scheduler slice, streamed by {@link GameApi}.
+ */
+public class FightRound {
+
+    private final int round;
+    private final long seed;
+    private final long ticksSpent;
+    private final FightState state;
+
+    public FightRound(int round, Fight<?> fight) {
+        this.round = round;
+        this.seed = fight.getSeed();
+        this.ticksSpent = fight.getTicksSpent();
+        this.state = fight.getState();
+    }
+
+    public int getRound() {
+        return round;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getTicksSpent() {
+        return ticksSpent;
+    }
+
+    public FightState getState() {
+        return state;
+    }
+}
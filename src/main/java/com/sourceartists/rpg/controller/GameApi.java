@@ -0,0 +1,266 @@
+package com.sourceartists.rpg.controller;
+
+import com.sourceartists.rpg.engine.DragonFightSimulator;
+import com.sourceartists.rpg.engine.DragonLair;
+import com.sourceartists.rpg.engine.DragonOdds;
+import com.sourceartists.rpg.engine.Fight;
+import com.sourceartists.rpg.exception.DoesNotStandAChanceException;
+import com.sourceartists.rpg.exception.HeroIsAChickenExcpetion;
+import com.sourceartists.rpg.exception.HeroSlainedByDragonException;
+import com.sourceartists.rpg.model.*;
+import com.sourceartists.rpg.persistence.CastleRepository;
+import com.sourceartists.rpg.persistence.ChestRepository;
+import com.sourceartists.rpg.persistence.HeroRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * HTTP endpoints over {@link GameController}. Every request is handed to the task executor and
+ * the servlet thread is released straight away. Fights are streamed as server-sent events, one
+ * {@link FightRound} per scheduler slice; each slice is a separate task, so a long fight holds a
+ * thread only while a slice runs.
+ */
+@RestController
+@RequestMapping("/heroes/{heroId}")
+public class GameApi {
+
+    public static final long FIGHT_STREAM_TIMEOUT_MILLIS = 60_000;
+
+    @Autowired
+    private GameController gameController;
+
+    @Autowired
+    private HeroRepository heroRepository;
+
+    @Autowired
+    private CastleRepository castleRepository;
+
+    @Autowired
+    private ChestRepository chestRepository;
+
+    @Autowired
+    private DragonFightSimulator dragonFightSimulator;
+
+    @Autowired
+    private DragonLair dragonLair;
+
+    @Autowired
+    private AsyncTaskExecutor taskExecutor;
+
+    @GetMapping
+    public CompletableFuture<HeroStatus> hero(@PathVariable long heroId){
+        return async(() -> HeroStatus.of(findHero(heroId)));
+    }
+
+    @PostMapping("/level-up")
+    public CompletableFuture<HeroStatus> levelUp(@PathVariable long heroId){
+        return async(() -> {
+            Hero hero = findHero(heroId);
+            gameController.levelUp(hero);
+
+            return save(hero);
+        });
+    }
+
+    @PostMapping("/chests/{chestId}/open")
+    public CompletableFuture<HeroStatus> openLootChest(@PathVariable long heroId, @PathVariable long chestId){
+        return async(() -> {
+            Hero hero = findHero(heroId);
+            gameController.openLootChest(hero, chestRepository.findById(chestId)
+                    .orElseThrow(() -> notFound("chest", chestId)));
+
+            return save(hero);
+        });
+    }
+
+    @PostMapping("/buffs/{buffType}")
+    public CompletableFuture<HeroStatus> gainBuff(@PathVariable long heroId, @PathVariable BuffType buffType){
+        return async(() -> {
+            Hero hero = findHero(heroId);
+            gameController.gainBuff(hero, buffType);
+
+            return save(hero);
+        });
+    }
+
+    @PostMapping("/castles/{castleId}/break-in")
+    public CompletableFuture<HeroStatus> breakIntoCastleAndSteal(@PathVariable long heroId
+            , @PathVariable long castleId){
+        return async(() -> {
+            Hero hero = findHero(heroId);
+            gameController.breakIntoCastleAndSteal(hero, findCastle(castleId));
+
+            return save(hero);
+        });
+    }
+
+    @GetMapping("/dragon-odds")
+    public CompletableFuture<DragonOdds> dragonOdds(@PathVariable long heroId
+            , @RequestParam(defaultValue = "NORMAL") DragonType dragonType){
+        return async(() -> dragonFightSimulator.estimate(findHero(heroId), dragonType));
+    }
+
+    @PostMapping("/mighty-dragon/fight")
+    public CompletableFuture<Boolean> fightWithMightyDragon(@PathVariable long heroId){
+        return async(() -> {
+            Hero hero = findHero(heroId);
+            boolean dragonSlained = gameController.fightWithMightyDragon(hero, new MightyDragon());
+            save(hero);
+
+            return dragonSlained;
+        });
+    }
+
+    @PostMapping("/dragon/gold")
+    public CompletableFuture<Boolean> stealGoldFromDragon(@PathVariable long heroId
+            , @RequestParam Integer amount){
+        return async(() -> {
+            Hero hero = findHero(heroId);
+            boolean stolen = gameController.stealGoldFromDragon(hero, dragonLair.getDragon(), amount);
+            save(hero);
+
+            return stolen;
+        });
+    }
+
+    @PostMapping("/dragon/treasures")
+    public CompletableFuture<Boolean> stealTreasureFromDragon(@PathVariable long heroId
+            , @RequestBody List<TreasureType> treasureTypes){
+        return async(() -> {
+            Hero hero = findHero(heroId);
+            boolean stolen = gameController.stealTreasureFromDragon(hero, dragonLair.getDragon()
+                    , treasures(treasureTypes));
+            save(hero);
+
+            return stolen;
+        });
+    }
+
+    @PostMapping("/loot")
+    public CompletableFuture<BigDecimal> countLoot(@PathVariable long heroId
+            , @RequestBody List<TreasureType> treasureTypes){
+        return async(() -> gameController.countLoot(treasures(treasureTypes), findHero(heroId)));
+    }
+
+    @PostMapping("/boss-fight")
+    public SseEmitter fightTheBoss(@PathVariable long heroId){
+        SseEmitter emitter = new SseEmitter(FIGHT_STREAM_TIMEOUT_MILLIS);
+
+        taskExecutor.execute(() -> {
+            try {
+                Hero hero = findHero(heroId);
+                stream(emitter, gameController.fightTheBoss(hero, new Boss()), 1, () -> save(hero));
+            } catch (RuntimeException e) {
+                emitter.completeWithError(e);
+            }
+        });
+
+        return emitter;
+    }
+
+    @PostMapping("/castles/{castleId}/defense")
+    public SseEmitter defendCastle(@PathVariable long heroId, @PathVariable long castleId){
+        SseEmitter emitter = new SseEmitter(FIGHT_STREAM_TIMEOUT_MILLIS);
+
+        taskExecutor.execute(() -> {
+            try {
+                Hero hero = findHero(heroId);
+                Castle castle = findCastle(castleId);
+                stream(emitter, gameController.defendCastle(hero, castle), 1, () -> {
+                    castleRepository.saveAll(Collections.singletonList(castle));
+                    return save(hero);
+                });
+            } catch (RuntimeException e) {
+                emitter.completeWithError(e);
+            }
+        });
+
+        return emitter;
+    }
+
+    /**
+     * Sends the round just played and, while the fight goes on, schedules the next slice as a new task.
+     */
+    private void stream(SseEmitter emitter, Fight<RuntimeException> fight, int round, Supplier<?> onFinish){
+        try {
+            emitter.send(new FightRound(round, fight));
+
+            if(fight.isFinished()){
+                emitter.send(SseEmitter.event().name("hero").data(onFinish.get()));
+                emitter.complete();
+                return;
+            }
+
+            taskExecutor.execute(() -> {
+                try {
+                    stream(emitter, gameController.resumeFight(fight), round + 1, onFinish);
+                } catch (RuntimeException e) {
+                    emitter.completeWithError(e);
+                }
+            });
+        } catch (IOException e) {
+            // The client went away; the fight is simply not resumed.
+            emitter.completeWithError(e);
+        }
+    }
+
+    @ExceptionHandler({HeroSlainedByDragonException.class, HeroIsAChickenExcpetion.class
+            , DoesNotStandAChanceException.class})
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    public void heroFailed(){
+    }
+
+    private <T> CompletableFuture<T> async(Callable<T> action){
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return action.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, taskExecutor);
+    }
+
+    private Hero findHero(long heroId){
+        return heroRepository.findById(heroId).orElseThrow(() -> notFound("hero", heroId));
+    }
+
+    private Castle findCastle(long castleId){
+        return castleRepository.findById(castleId).orElseThrow(() -> notFound("castle", castleId));
+    }
+
+    private HeroStatus save(Hero hero){
+        heroRepository.saveAll(Collections.singletonList(hero));
+
+        return HeroStatus.of(hero);
+    }
+
+    private static List<Treasure> treasures(List<TreasureType> treasureTypes){
+        List<Treasure> treasures = new ArrayList<>(treasureTypes.size());
+
+        for(TreasureType treasureType: treasureTypes){
+            treasures.add(Treasure.of(treasureType));
+        }
+
+        return treasures;
+    }
+
+    private static ResponseStatusException notFound(String what, long id){
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "No " + what + " with id " + id);
+    }
+}
@@ -1,172 +1,461 @@
 package com.sourceartists.rpg.controller;
 
+import com.sourceartists.rpg.engine.BuffExpiryWheel;
+import com.sourceartists.rpg.engine.DragonRaidCoordinator;
+import com.sourceartists.rpg.engine.Fight;
+import com.sourceartists.rpg.engine.FightEvent;
+import com.sourceartists.rpg.engine.FightEventBus;
+import com.sourceartists.rpg.engine.FightRandom;
+import com.sourceartists.rpg.engine.FightScheduler;
+import com.sourceartists.rpg.engine.FightState;
 import com.sourceartists.rpg.engine.GameEngine;
+import com.sourceartists.rpg.engine.SiegeEngine;
+import com.sourceartists.rpg.engine.StrengthModifierTable;
 import com.sourceartists.rpg.exception.DoesNotStandAChanceException;
 import com.sourceartists.rpg.exception.HeroIsAChickenExcpetion;
 import com.sourceartists.rpg.exception.HeroOvercomesDeathAndCrushesHisEnemy;
 import com.sourceartists.rpg.exception.HeroSlainedByDragonException;
+import com.sourceartists.rpg.metrics.GameMetrics;
 import com.sourceartists.rpg.model.*;
+import com.sourceartists.rpg.persistence.HeroJournal;
+import com.sourceartists.rpg.persistence.HeroStateFile;
+import com.sourceartists.rpg.trace.GameTrace;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.util.CollectionUtils;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.annotation.PreDestroy;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Random;
-import java.util.concurrent.locks.Lock;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 @RestController
 public class GameController {
 
-    public static final Integer MIN_SUPERBUFF_LEVEL = 75;
-    public static final Integer MIN_SUPERBUFF_MORALE = 8;
+    public static final int SWINGS_PER_ROUND = 32;
+    public static final int LEVEL_UP_BATCH_SIZE = 1024;
+
+    private static final BuffDefinition[] NORMAL_BUFFS = BuffDefinition.forEveryType("normal duper buff");
+    private static final BuffDefinition[] SUPER_BUFFS = BuffDefinition.forEveryType("super duper buff");
 
     @Autowired
     private GameEngine gameEngine;
 
+    @Autowired
+    private BuffExpiryWheel buffExpiryWheel;
+
+    @Autowired
+    private SiegeEngine siegeEngine;
+
+    @Autowired
+    private HeroJournal heroJournal;
+
+    @Autowired
+    private HeroStateFile heroStateFile;
+
+    @Autowired
+    private FightEventBus fightEventBus;
+
+    @Autowired
+    private GameMetrics gameMetrics;
+
+    @Autowired
+    private DragonRaidCoordinator dragonRaidCoordinator;
+
+    private final ForkJoinPool levelUpPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private FightScheduler fightScheduler = new FightScheduler(FightScheduler.DEFAULT_TICK_BUDGET);
+
+    @Value("${rpg.fight.tick-budget:" + FightScheduler.DEFAULT_TICK_BUDGET + "}")
+    public void setFightTickBudget(int fightTickBudget) {
+        this.fightScheduler = new FightScheduler(fightTickBudget);
+    }
+
+    @Autowired
+    private StrengthModifierTable strengthModifiers;
+
     public void levelUp(Hero hero){
-        hero.setLevel(hero.getLevel() + 1);
+        int[] reached = new int[1];
+        long journaled = journal(HeroJournal.EventType.LEVEL_UP, hero, 1, () -> reached[0] = hero.levelUp());
+        int level = reached[0];
 
-        if(hero.getLevel() % 10 == 0){
+        if(level % 10 == 0){
             hero.addSpell(gameEngine.generateSpecialSpell());
         }
 
-        if(hero.getLevel() % 5 == 0){
-            hero.addMoney(gameEngine.generateBonusMoney());
+        if(level % 5 == 0){
+            long bonusMoney = gameEngine.generateBonusMoney();
+            journaled = journal(HeroJournal.EventType.ADD_MONEY, hero, bonusMoney, () -> hero.addMoney(bonusMoney));
         }
 
         if(hero.getActiveBuff() == null){
-            hero.setActiveBuff(gameEngine.generateRandomBuff());
+            journaled = Math.max(journaled, applyBuff(hero, gameEngine.generateRandomBuff()));
         }
+
+        heroJournal.awaitDurable(journaled);
+    }
+
+    /**
+     * Levels up every hero like {@link #levelUp(Hero)}, in batches of {@value #LEVEL_UP_BATCH_SIZE}
+     * spread over a fork-join pool of its own. Each batch asks the engine once for all the spells,
+     * once for all the bonus money and once for all the buffs it needs. A pool thread blocks while
+     * the journal has no room for its events until the flusher has written them, which is why the
+     * common pool is not used; the journal is only waited for once, after every batch is done.
+     */
+    public void levelUpAll(Collection<Hero> heroes){
+        List<Hero> heroList = heroes instanceof List && heroes instanceof RandomAccess
+                ? (List<Hero>) heroes : new ArrayList<>(heroes);
+        int batches = (heroList.size() + LEVEL_UP_BATCH_SIZE - 1) / LEVEL_UP_BATCH_SIZE;
+
+        long journaled = levelUpPool.submit(() -> IntStream.range(0, batches).parallel().mapToLong(batch ->
+                levelUpBatch(heroList.subList(batch * LEVEL_UP_BATCH_SIZE
+                        , Math.min(heroList.size(), (batch + 1) * LEVEL_UP_BATCH_SIZE))))
+                .max().orElse(0)).join();
+
+        heroJournal.awaitDurable(journaled);
+    }
+
+    @PreDestroy
+    public void shutdown(){
+        levelUpPool.shutdown();
+    }
+
+    /**
+     * @return journal sequence number of the batch's last event, or 0 if nothing was journaled
+     */
+    private long levelUpBatch(List<Hero> heroes){
+        int[] levels = new int[heroes.size()];
+        boolean[] needsBuff = new boolean[heroes.size()];
+        int spellCount = 0;
+        int moneyCount = 0;
+        int buffCount = 0;
+        long journaled = 0;
+
+        for(int i = 0; i < levels.length; i++){
+            Hero hero = heroes.get(i);
+            int row = i;
+            journaled = Math.max(journaled, journal(HeroJournal.EventType.LEVEL_UP, hero, 1
+                    , () -> levels[row] = hero.levelUp()));
+
+            if(levels[i] % 10 == 0){
+                spellCount++;
+            }
+
+            if(levels[i] % 5 == 0){
+                moneyCount++;
+            }
+
+            if(hero.getActiveBuff() == null){
+                needsBuff[i] = true;
+                buffCount++;
+            }
+        }
+
+        Spell[] spells = spellCount > 0 ? gameEngine.generateSpecialSpells(spellCount) : null;
+        long[] bonusMoney = moneyCount > 0 ? gameEngine.generateBonusMoney(moneyCount) : null;
+        Buff[] buffs = buffCount > 0 ? gameEngine.generateRandomBuffs(buffCount) : null;
+        int spell = 0;
+        int money = 0;
+        int buff = 0;
+
+        for(int i = 0; i < levels.length; i++){
+            Hero hero = heroes.get(i);
+
+            if(levels[i] % 10 == 0){
+                hero.addSpell(spells[spell++]);
+            }
+
+            if(levels[i] % 5 == 0){
+                long heroMoney = bonusMoney[money++];
+                journaled = Math.max(journaled, journal(HeroJournal.EventType.ADD_MONEY, hero, heroMoney
+                        , () -> hero.addMoney(heroMoney)));
+            }
+
+            if(needsBuff[i]){
+                journaled = Math.max(journaled, applyBuff(hero, buffs[buff++]));
+            }
+        }
+
+        return journaled;
+    }
+
+    /**
+     * @return journal sequence number of the buff, or 0 if the hero already had one
+     */
+    private long applyBuff(Hero hero, Buff buff){
+        if(buff == null || !hero.compareAndSetActiveBuff(null, buff)){
+            return 0;
+        }
+
+        long buffValue = HeroJournal.buffValue(buff, System.currentTimeMillis());
+        buffExpiryWheel.schedule(hero, buff, expired -> journal(HeroJournal.EventType.CLEAR_BUFF, hero, buffValue));
+        publish(FightEvent.Type.BUFF_APPLIED, 0, hero, buff instanceof SuperBuff, false, 0, buff.getName());
+
+        GameTrace.buffApplied(traceId(hero), buff.getName()
+                , buff.getBuffType() != null ? buff.getBuffType().name() : null, buff instanceof SuperBuff);
+
+        return journal(HeroJournal.EventType.SET_BUFF, hero, buffValue);
+    }
+
+    /**
+     * Applies the mutation, journals it and mirrors it into the hero's state file record in one
+     * step, and moves the hero's journal sequence number along; heroes without an id are neither
+     * journaled nor mirrored.
+     */
+    private long journal(HeroJournal.EventType type, Hero hero, long value, Runnable mutation){
+        if(hero.getId() == null){
+            mutation.run();
+            return 0;
+        }
+
+        return heroJournal.append(type, hero.getId(), value, seq -> {
+            mutation.run();
+            hero.setJournalSeq(seq);
+            heroStateFile.update(hero, type, value, seq);
+        });
+    }
+
+    /**
+     * Journals a mutation that is already applied; only for absolute values, which replay safely.
+     */
+    private long journal(HeroJournal.EventType type, Hero hero, long value){
+        return journal(type, hero, value, () -> {});
+    }
+
+    private void publish(FightEvent.Type type, long fightSeed, Hero hero, boolean critical, boolean deadly
+            , long value, String name){
+        if(fightEventBus.hasSubscribers()){
+            fightEventBus.publish(new FightEvent(type, fightSeed, hero.getId(), critical, deadly, value, name));
+        }
+    }
+
+    private static void traceFightStarted(String fight, long fightSeed, Hero hero){
+        GameTrace.fightStarted(fight, fightSeed, traceId(hero));
     }
 
-    public boolean defendCastle(Hero hero, Castle castle){
+    private static long traceId(Hero hero){
+        return hero.getId() != null ? hero.getId() : 0;
+    }
+
+    private FightState finish(long fightSeed, Hero hero, FightState state){
+        if(state != FightState.IN_PROGRESS){
+            publish(FightEvent.Type.FIGHT_FINISHED, fightSeed, hero, false, false, 0, state.name());
+        }
+
+        return state;
+    }
+
+    public <E extends Exception> Fight<E> resumeFight(Fight<E> fight) throws E {
+        return fightScheduler.run(fight);
+    }
+
+    public Fight<RuntimeException> defendCastle(Hero hero, Castle castle){
         castle.startDefense(hero);
 
         List<Hero> heroesArmy = hero.getAllies();
         hero.castOffensiveSpell(heroesArmy);
         hero.getArmyIntoPosition();
+        Hero[] army = CollectionUtils.isEmpty(heroesArmy) ? new Hero[0] : heroesArmy.toArray(new Hero[0]);
+
+        long seed = fightScheduler.nextSeed();
+        traceFightStarted("castle-defense", seed, hero);
 
         if(!castle.defenseStarted()){
-            return false;
+            gameMetrics.recordCastleDefense(0);
+            return fightScheduler.start(seed, () -> finish(seed, hero, FightState.LOST));
         }
 
-        while(hero.isAlive() || !castle.taken()){
-            castle.shootAtHeroAndHisArmy(hero);
-            gameEngine.attackTheCastle(hero,castle);
-        }
+        long[] rounds = new long[1];
 
-        if(hero.isAlive()){return false;}
+        return fightScheduler.start(seed, () -> {
+            if(hero.isAlive() || !castle.taken()){
+                rounds[0]++;
+                castle.shootAtHeroAndHisArmy(hero);
+                gameEngine.attackTheCastle(hero,castle);
+                siegeEngine.volley(army, castle, FightRandom.current().nextLong());
+                publish(FightEvent.Type.SIEGE_ROUND, seed, hero, false, false, castle.getHitPoints(), null);
+            }
 
-        return true;
+            if(hero.isAlive() || !castle.taken()){
+                return FightState.IN_PROGRESS;
+            }
+
+            gameMetrics.recordCastleDefense(rounds[0]);
+
+            return finish(seed, hero, hero.isAlive() ? FightState.LOST : FightState.WON);
+        });
     }
 
-    public void heroDies(Hero hero, Enemy enemy) throws HeroOvercomesDeathAndCrushesHisEnemy {
-        Hit hit = gameEngine.hit(enemy, hero);
+    public Fight<HeroOvercomesDeathAndCrushesHisEnemy> heroDies(Hero hero, Enemy enemy)
+            throws HeroOvercomesDeathAndCrushesHisEnemy {
+        long seed = fightScheduler.nextSeed();
+        long[] hits = new long[1];
+        traceFightStarted("hero-dies", seed, hero);
 
-        while(!hit.isCritical()){
-            hit = gameEngine.hit(enemy, hero);
-        }
+        return fightScheduler.start(seed, () -> {
+            Hit hit = gameEngine.hit(enemy, hero);
+            hits[0]++;
+            publish(FightEvent.Type.HIT, seed, hero, hit.isCritical(), false, 0, null);
+
+            if(!hit.isCritical()){
+                return FightState.IN_PROGRESS;
+            }
 
-        enemy.performDeadlyFinalBlow();
+            gameMetrics.recordHeroDies(hits[0]);
+            enemy.performDeadlyFinalBlow();
+
+            return finish(seed, hero, FightState.LOST);
+        });
     }
 
+    private static final int UNUSED_LOCKPICK_MIN_LEVEL = 30;
+    private static final int USED_LOCKPICK_MIN_LEVEL = 80;
+
     public void openLootChest(Hero hero, Chest chest){
-        for(Lockpick lockpick: hero.getLockpicks()){
-            boolean opened = attemptToOpen(lockpick
-                    , hero.getLockpickingLevel());
+        LockpickInventory lockpicks = hero.getLockpickInventory();
+
+        // Unused picks are tried first, then used ones, and every attempt trains lockpicking,
+        // so the attempt that opens the chest follows from the level and the pick counts.
+        int level = hero.getLockpickingLevel();
+        int unusedCount = lockpicks.getUnusedCount();
+        int size = lockpicks.size();
+        boolean usedLockpicks = false;
+        int failedAttempts = size;
+
+        if(unusedCount > 0 && level + unusedCount - 1 > UNUSED_LOCKPICK_MIN_LEVEL){
+            failedAttempts = Math.max(0, UNUSED_LOCKPICK_MIN_LEVEL + 1 - level);
+        }else if(size > unusedCount && level + size - 1 > USED_LOCKPICK_MIN_LEVEL){
+            usedLockpicks = true;
+            failedAttempts = Math.max(unusedCount, USED_LOCKPICK_MIN_LEVEL + 1 - level);
+        }
 
-            hero.increaseLockpicking();
+        boolean opened = failedAttempts < size;
 
-            if(opened){
-                hero.addMoney(chest.getMoney());
-                return;
-            }
-        }
-    }
+        GameTrace.lockpickAttemptEnded(null, traceId(hero), "chest", usedLockpicks
+                , opened ? failedAttempts + 1 : size, opened);
 
-    private boolean attemptToOpen(Lockpick lockpick, Integer lockpickingLevel){
-        if(lockpick.isUsed()){
-            if(lockpickingLevel > 80){
-                return true;
-            }
-        }else{
-            if(lockpickingLevel > 30){
-                return true;
-            }
+        if(!opened){
+            gameMetrics.recordChestLockpickAttempts(size);
+            heroJournal.awaitDurable(journal(HeroJournal.EventType.INCREASE_LOCKPICKING, hero, size
+                    , () -> hero.increaseLockpicking(size)));
+            return;
         }
 
-        return false;
+        int attempts = failedAttempts + 1;
+        long money = chest.getMoneyMinorUnits();
+        gameMetrics.recordChestLockpickAttempts(attempts);
+
+        journal(HeroJournal.EventType.INCREASE_LOCKPICKING, hero, attempts
+                , () -> hero.increaseLockpicking(attempts));
+        heroJournal.awaitDurable(journal(HeroJournal.EventType.ADD_MONEY, hero, money
+                , () -> hero.addMoney(money)));
     }
 
     public void gainBuff(Hero hero, BuffType buffType){
+        if(buffType == null){
+            throw new IllegalArgumentException("Buff type is required");
+        }
+
         if(hero.getActiveBuff() != null){
             return;
         }
 
-        if(gameEngine.giveSuperBuff(hero.getLevel(), hero.getMoraleLevel())){
-            hero.setActiveBuff(new SuperBuff("super duper buff", buffType));
+        if(gameEngine.getSuperBuffTable().roll(hero.getLevel(), hero.getMoraleLevel()
+                , FightRandom.current())){
+            heroJournal.awaitDurable(applyBuff(hero, new SuperBuff(SUPER_BUFFS[buffType.ordinal()])));
 
             return;
         }
 
-        hero.setActiveBuff(new Buff("normal duper buff", buffType));
+        heroJournal.awaitDurable(applyBuff(hero, new Buff(NORMAL_BUFFS[buffType.ordinal()])));
     }
 
-    public void fightTheBoss(Hero hero, Boss boss){
+    public Fight<RuntimeException> fightTheBoss(Hero hero, Boss boss){
         gameEngine.castSpell(hero.mostPowerfullOffensiveSpell(), boss);
 
-        while(boss.isAlive()){
-            boolean criticalHit = gameEngine.determineCritical(hero.getEquippedWeapon(), hero);
+        SwingBatch swings = new SwingBatch(SWINGS_PER_ROUND);
+        long seed = fightScheduler.nextSeed();
+        traceFightStarted("boss", seed, hero);
+
+        return fightScheduler.start(seed, () -> {
+            if(boss.isAlive()){
+                gameEngine.resolveSwings(hero.getEquippedWeapon(), hero, boss, swings);
 
-            AttackOutcome attackOutcome = gameEngine.attack(
-                    hero.getEquippedWeapon(), boss, criticalHit);
+                if(fightEventBus.hasSubscribers()){
+                    for(int swing = 0; swing < swings.getResolved(); swing++){
+                        publish(FightEvent.Type.SWING, seed, hero, swings.isCritical(swing)
+                                , swings.isDeadly(swing), 0, null);
+                    }
+                }
 
-            if(attackOutcome.isDeadly()){
-                boss.setAlive(false);
+                if(swings.isDeadly()){
+                    boss.setAlive(false);
+                }
             }
-        }
-    }
 
-    public void breakIntoCastleAndSteal(Hero hero, Castle castle){
-        boolean mainDoorOpened = false;
+            if(boss.isAlive()){
+                return FightState.IN_PROGRESS;
+            }
 
-        for(Lockpick lockpick: hero.getLockpicks()){
-            boolean opened = gameEngine.attemptToOpenDoor(lockpick
-                    , hero.getLockpickingLevel());
+            gameMetrics.recordBossFight(swings.getTotalResolved());
 
-            if(opened){
-                mainDoorOpened = true;
-                break;
-            }
-        }
+            return finish(seed, hero, FightState.WON);
+        });
+    }
+
+    public void breakIntoCastleAndSteal(Hero hero, Castle castle){
+        boolean mainDoorOpened = attemptToOpenDoor(hero, false)
+                || attemptToOpenDoor(hero, true);
 
         if(!mainDoorOpened){
             return;
         }
 
-        BigDecimal jeweleryWorth = gameEngine.stealFromJeweleryBox(castle, hero);
-        hero.addMoney(jeweleryWorth);
+        long jeweleryWorth = Gold.toMinorUnits(gameEngine.stealFromJeweleryBox(castle, hero));
+        heroJournal.awaitDurable(journal(HeroJournal.EventType.ADD_MONEY, hero, jeweleryWorth
+                , () -> hero.addMoney(jeweleryWorth)));
     }
 
-    private static final int LOW_MORALE_LEVEL = 1;
-    private static final int FAIR_MORALE_LEVEL = 2;
-    private static final int ALMIGHTY_MORALE_LEVEL = 3;
+    private boolean attemptToOpenDoor(Hero hero, boolean usedLockpicks){
+        LockpickInventory lockpicks = hero.getLockpickInventory();
+        int attempts = 0;
+        boolean opened = false;
+
+        Object traced = GameTrace.lockpickAttemptStarted();
+
+        try {
+            for(int id = lockpicks.nextId(usedLockpicks, 0); id >= 0
+                    ; id = lockpicks.nextId(usedLockpicks, id + 1)){
+                attempts++;
+
+                if(gameEngine.attemptToOpenDoor(lockpicks.get(id), hero.getLockpickingLevel())){
+                    opened = true;
+                    return true;
+                }
+            }
+
+            return false;
+        } finally {
+            gameMetrics.recordDoorLockpickAttempts(attempts);
 
-    private static final int LOW_MORALE_STRENGTH_GAIN = -1;
-    private static final int FAIR_MORALE_STRENGTH_GAIN = 3;
-    private static final int ALMIGHTY_MORALE_STRENGTH_GAIN = 10;
+            GameTrace.lockpickAttemptEnded(traced, traceId(hero), "castle-door", usedLockpicks, attempts, opened);
+        }
+    }
 
     public boolean fightWithMightyDragon(Hero hero, MightyDragon mightyDragon) throws DoesNotStandAChanceException {
-        if(hero.getMoraleLevel().equals(LOW_MORALE_LEVEL)){
-            hero.addStrenth(LOW_MORALE_STRENGTH_GAIN);
-        }else if(hero.getMoraleLevel().equals(FAIR_MORALE_LEVEL)){
-            hero.addStrenth(FAIR_MORALE_STRENGTH_GAIN);
-        }else if(hero.getMoraleLevel().equals(ALMIGHTY_MORALE_LEVEL)){
-            hero.addStrenth(ALMIGHTY_MORALE_STRENGTH_GAIN);
+        int strengthGain = strengthModifiers.strengthGain(hero, mightyDragon);
+
+        if(strengthGain != 0){
+            hero.addStrenth(strengthGain);
         }
 
         boolean dragonSlained = gameEngine.fightWithDragon(hero, mightyDragon);
+        publish(FightEvent.Type.DRAGON_FIGHT, 0, hero, false, dragonSlained, 0, null);
 
         return dragonSlained;
     }
@@ -183,13 +472,23 @@ public class GameController {
 
         if(amountToSteal >= Integer.valueOf(1000)){
             boolean dragonSlained = gameEngine.fightWithDragon(hero, dragon);
+            publish(FightEvent.Type.DRAGON_FIGHT, 0, hero, false, dragonSlained, 0, null);
 
             if(!dragonSlained){
                 throw new HeroSlainedByDragonException();
             }
         }
 
-        return gameEngine.stealGold(hero, dragon);
+        long goldStolen = dragonRaidCoordinator.stealGold(hero, dragon, Gold.of(amountToSteal));
+
+        if(goldStolen == 0){
+            return false;
+        }
+
+        heroJournal.awaitDurable(journal(HeroJournal.EventType.ADD_MONEY, hero, goldStolen
+                , () -> hero.addMoney(goldStolen)));
+
+        return true;
     }
 
     public boolean stealTreasureFromDragon(Hero hero, Dragon dragon, List<Treasure> treasures)
@@ -198,15 +497,25 @@ public class GameController {
             throw new HeroIsAChickenExcpetion();
         }
 
-        return gameEngine.stealTreasures(hero, dragon, treasures);
+        return dragonRaidCoordinator.stealTreasures(hero, dragon, treasures);
     }
 
     public BigDecimal countLoot(List<Treasure> treasures, Hero hero){
-        BigDecimal lootWorth = hero.getGold();
+        long lootWorth = hero.getGoldMinorUnits();
+
+        for(Treasure treasure: treasures){
+            lootWorth += treasure.getTreasureType().getWorthMinorUnits();
+        }
+
+        return Gold.toBigDecimal(lootWorth);
+    }
 
-        return treasures.stream()
-                .map(treasure -> treasure.getTreasureType().getWorth())
-                .reduce(lootWorth, (totalWorth, treasureWorth) -> totalWorth.add(treasureWorth));
+    /**
+     * Same as {@link #countLoot(List, Hero)} for treasures kept in a hoard, read in O(1); gold
+     * in the hoard is not counted.
+     */
+    public BigDecimal countLoot(DragonHoard loot, Hero hero){
+        return Gold.toBigDecimal(hero.getGoldMinorUnits() + loot.getTreasureWorthMinorUnits());
     }
 
 
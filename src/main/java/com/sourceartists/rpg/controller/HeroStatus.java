@@ -0,0 +1,83 @@
+package com.sourceartists.rpg.controller;
+
+import com.sourceartists.rpg.model.Buff;
+import com.sourceartists.rpg.model.Hero;
+import com.sourceartists.rpg.model.HeroClass;
+
+import java.math.BigDecimal;
+
+/**
+ * Snapshot of a hero as returned by {@link GameApi}.
+ */
+public class HeroStatus {
+
+    private final Long id;
+    private final String name;
+    private final HeroClass heroClass;
+    private final int level;
+    private final int moraleLevel;
+    private final int strength;
+    private final int lockpickingLevel;
+    private final BigDecimal gold;
+    private final boolean alive;
+    private final String activeBuff;
+
+    private HeroStatus(Hero hero) {
+        Buff buff = hero.getActiveBuff();
+
+        this.id = hero.getId();
+        this.name = hero.getName();
+        this.heroClass = hero.getHeroClass();
+        this.level = hero.getLevel();
+        this.moraleLevel = hero.getMoraleLevel();
+        this.strength = hero.getStrength();
+        this.lockpickingLevel = hero.getLockpickingLevel();
+        this.gold = hero.getGold();
+        this.alive = hero.isAlive();
+        this.activeBuff = buff != null ? buff.getName() : null;
+    }
+
+    public static HeroStatus of(Hero hero) {
+        return new HeroStatus(hero);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public HeroClass getHeroClass() {
+        return heroClass;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getMoraleLevel() {
+        return moraleLevel;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public int getLockpickingLevel() {
+        return lockpickingLevel;
+    }
+
+    public BigDecimal getGold() {
+        return gold;
+    }
+
+    public boolean isAlive() {
+        return alive;
+    }
+
+    public String getActiveBuff() {
+        return activeBuff;
+    }
+}
@@ -0,0 +1,222 @@
+package com.sourceartists.rpg.engine;
+
+import com.sourceartists.rpg.model.Buff;
+import com.sourceartists.rpg.model.BuffHolder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel that clears a holder's active buff once its {@link Buff#getTimeLeft()}
+ * has elapsed. One tick is one second of buff time. Scheduling and cancelling only enqueue,
+ * so both are O(1) for the caller; a single shared ticker thread files new expiries into
+ * their bucket, unlinks cancelled ones and expires the bucket under the wheel's hand. The first
+ * schedule starts the ticker if nobody has, so expiries never pile up unfiled; once the wheel
+ * is stopped, nothing is scheduled any more.
+ */
+@Component
+public class BuffExpiryWheel {
+
+    public static final long DEFAULT_TICK_MILLIS = 1000;
+
+    static final int WHEEL_SIZE = 512;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private final long tickMillis;
+    private final Expiry[] buckets = new Expiry[WHEEL_SIZE];
+    private final Queue<Expiry> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Expiry> cancelled = new ConcurrentLinkedQueue<>();
+    private long currentTick;
+    private volatile ScheduledExecutorService ticker;
+    private boolean stopped;
+
+    public BuffExpiryWheel() {
+        this(DEFAULT_TICK_MILLIS);
+    }
+
+    public BuffExpiryWheel(long tickMillis) {
+        this.tickMillis = tickMillis;
+    }
+
+    public Expiry schedule(BuffHolder holder, Buff buff) {
+        return schedule(holder, buff, null);
+    }
+
+    /**
+     * @param onExpired called on the ticker thread with the buff once the wheel has cleared it
+     * from the holder; not called if the holder had moved on to another buff
+     */
+    public Expiry schedule(BuffHolder holder, Buff buff, Consumer<Buff> onExpired) {
+        Expiry expiry = new Expiry(this, holder, buff, onExpired, Math.max(1, buff.getTimeLeft()));
+
+        if(ticker == null){
+            start();
+
+            if(ticker == null){
+                // stopped
+                return expiry;
+            }
+        }
+
+        scheduled.add(expiry);
+
+        return expiry;
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if(stopped || ticker != null){
+            return;
+        }
+
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "buff-expiry-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        stopped = true;
+        scheduled.clear();
+
+        if(ticker != null){
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    /**
+     * Advances the wheel by one tick. Called by the ticker thread only, or by tests whose ticker
+     * never fires.
+     */
+    void tick() {
+        for(Expiry expiry = cancelled.poll(); expiry != null; expiry = cancelled.poll()){
+            unlink(expiry);
+        }
+
+        for(Expiry expiry = scheduled.poll(); expiry != null; expiry = scheduled.poll()){
+            if(expiry.state.get() == Expiry.PENDING){
+                expiry.remainingRounds = expiry.ticks / WHEEL_SIZE;
+                link(expiry, (int) ((currentTick + expiry.ticks) & WHEEL_MASK));
+            }
+        }
+
+        int bucket = (int) (currentTick & WHEEL_MASK);
+        Expiry expiry = buckets[bucket];
+
+        while(expiry != null){
+            Expiry next = expiry.next;
+
+            if(expiry.remainingRounds > 0){
+                expiry.remainingRounds--;
+            }else{
+                unlink(expiry);
+                expiry.expire();
+            }
+
+            expiry = next;
+        }
+
+        currentTick++;
+    }
+
+    private void link(Expiry expiry, int bucket) {
+        expiry.bucket = bucket;
+        expiry.prev = null;
+        expiry.next = buckets[bucket];
+
+        if(expiry.next != null){
+            expiry.next.prev = expiry;
+        }
+
+        buckets[bucket] = expiry;
+    }
+
+    private void unlink(Expiry expiry) {
+        if(expiry.bucket < 0){
+            return;
+        }
+
+        if(expiry.prev != null){
+            expiry.prev.next = expiry.next;
+        }else{
+            buckets[expiry.bucket] = expiry.next;
+        }
+
+        if(expiry.next != null){
+            expiry.next.prev = expiry.prev;
+        }
+
+        expiry.bucket = -1;
+        expiry.prev = null;
+        expiry.next = null;
+    }
+
+    public static final class Expiry {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final BuffExpiryWheel wheel;
+        private final BuffHolder holder;
+        private final Buff buff;
+        private final Consumer<Buff> onExpired;
+        private final int ticks;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        // owned by the ticker thread
+        private long remainingRounds;
+        private int bucket = -1;
+        private Expiry prev;
+        private Expiry next;
+
+        private Expiry(BuffExpiryWheel wheel, BuffHolder holder, Buff buff, Consumer<Buff> onExpired
+                , int ticks) {
+            this.wheel = wheel;
+            this.holder = holder;
+            this.buff = buff;
+            this.onExpired = onExpired;
+            this.ticks = ticks;
+        }
+
+        public boolean cancel() {
+            if(!state.compareAndSet(PENDING, CANCELLED)){
+                return false;
+            }
+
+            wheel.cancelled.add(this);
+
+            return true;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if(state.compareAndSet(PENDING, EXPIRED)){
+                buff.setTimeLeft(0);
+
+                if(holder.compareAndSetActiveBuff(buff, null) && onExpired != null){
+                    try {
+                        onExpired.accept(buff);
+                    } catch (RuntimeException e) {
+                        // A failing listener must not stop the ticker for every other buff.
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.sourceartists.rpg.engine;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.sourceartists.rpg.model.*;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.IntStream;
+
+/**
+ * Estimates a hero's odds against a dragon by running {@link GameEngine#fightWithDragon} trials
+ * on copies of the hero; against a mighty dragon the copy first gains strength from the
+ * {@link StrengthModifierTable}, as it does in the game. Trials run in parallel batches of {@value #BATCH_TRIALS}; every trial
+ * is a one-tick {@link Fight} with its own seed, derived from the hero's stats and its position,
+ * so an estimate is reproducible. Sampling stops once the 95% interval is narrower than
+ * {@link #TARGET_HALF_WIDTH} on either side, or after {@value #MAX_TRIALS} trials.
+ * Estimates are cached by hero stats and dragon type.
+ */
+@Component
+public class DragonFightSimulator {
+
+    public static final int BATCH_TRIALS = 256;
+    public static final int MAX_TRIALS = 100_000;
+    public static final double TARGET_HALF_WIDTH = 0.01;
+    public static final int CACHE_SIZE = 10_000;
+
+    private static final double Z_95 = 1.959964;
+
+    private final GameEngine gameEngine;
+    private final StrengthModifierTable strengthModifiers;
+    private final FightScheduler trialScheduler = new FightScheduler(1);
+    private final Cache<Matchup, DragonOdds> odds = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_SIZE)
+            .build();
+
+    public DragonFightSimulator(GameEngine gameEngine, StrengthModifierTable strengthModifiers) {
+        this.gameEngine = gameEngine;
+        this.strengthModifiers = strengthModifiers;
+    }
+
+    public DragonOdds estimate(Hero hero, Dragon dragon) {
+        return estimate(hero, dragon.getDragonType());
+    }
+
+    public DragonOdds estimate(Hero hero, DragonType dragonType) {
+        Matchup matchup = new Matchup(hero, dragonType);
+
+        try {
+            return odds.get(matchup, () -> simulate(matchup));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Dragon fight simulation failed", e.getCause());
+        }
+    }
+
+    private DragonOdds simulate(Matchup matchup) {
+        long baseSeed = matchup.seed();
+        long trials = 0;
+        long wins = 0;
+
+        while(true){
+            long firstTrial = trials;
+            wins += IntStream.range(0, BATCH_TRIALS).parallel()
+                    .filter(trial -> runTrial(matchup, FightRandom.streamSeed(baseSeed, firstTrial + trial)))
+                    .count();
+            trials += BATCH_TRIALS;
+
+            DragonOdds estimate = wilson(trials, wins);
+            if(trials >= MAX_TRIALS
+                    || estimate.getUpperBound() - estimate.getLowerBound() <= 2 * TARGET_HALF_WIDTH){
+                return estimate;
+            }
+        }
+    }
+
+    private boolean runTrial(Matchup matchup, long seed) {
+        Hero hero = matchup.newHero();
+        Dragon dragon = matchup.dragonType == DragonType.MIGHTY ? new MightyDragon() : new Dragon();
+
+        if(matchup.dragonType == DragonType.MIGHTY){
+            int strengthGain = strengthModifiers.strengthGain(hero, dragon);
+
+            if(strengthGain != 0){
+                hero.addStrenth(strengthGain);
+            }
+        }
+
+        return trialScheduler.start(seed, () -> gameEngine.fightWithDragon(hero, dragon)
+                ? FightState.WON : FightState.LOST).isWon();
+    }
+
+    private static DragonOdds wilson(long trials, long wins) {
+        double p = (double) wins / trials;
+        double zz = Z_95 * Z_95;
+        double denominator = 1 + zz / trials;
+        double centre = (p + zz / (2 * trials)) / denominator;
+        double halfWidth = Z_95 * Math.sqrt(p * (1 - p) / trials + zz / (4.0 * trials * trials)) / denominator;
+
+        return new DragonOdds(trials, wins, Math.max(0, centre - halfWidth), Math.min(1, centre + halfWidth));
+    }
+
+    /**
+     * The hero stats a dragon fight can depend on, and the dragon type.
+     */
+    private static final class Matchup {
+
+        private final int level;
+        private final int moraleLevel;
+        private final int strength;
+        private final int lockpickingLevel;
+        private final long gold;
+        private final boolean alive;
+        private final HeroClass heroClass;
+        private final BuffDefinition activeBuff;
+        private final boolean superBuff;
+        private final DragonType dragonType;
+
+        private Matchup(Hero hero, DragonType dragonType) {
+            Buff buff = hero.getActiveBuff();
+
+            this.level = hero.getLevel();
+            this.moraleLevel = hero.getMoraleLevel();
+            this.strength = hero.getStrength();
+            this.lockpickingLevel = hero.getLockpickingLevel();
+            this.gold = hero.getGoldMinorUnits();
+            this.alive = hero.isAlive();
+            this.heroClass = hero.getHeroClass();
+            this.activeBuff = buff != null ? buff.getDefinition() : null;
+            this.superBuff = buff instanceof SuperBuff;
+            this.dragonType = dragonType;
+        }
+
+        private Hero newHero() {
+            Hero hero = new Hero();
+            hero.setLevel(level);
+            hero.setMoraleLevel(moraleLevel);
+            hero.setStrength(strength);
+            hero.setLockpickingLevel(lockpickingLevel);
+            hero.setGoldMinorUnits(gold);
+            hero.setAlive(alive);
+            hero.setHeroClass(heroClass);
+
+            if(activeBuff != null){
+                hero.setActiveBuff(superBuff ? new SuperBuff(activeBuff) : new Buff(activeBuff));
+            }
+
+            return hero;
+        }
+
+        /**
+         * @return seed that depends on the stats only, unlike {@link #hashCode()} which hashes enums by identity
+         */
+        private long seed() {
+            long seed = level;
+            seed = seed * 31 + moraleLevel;
+            seed = seed * 31 + strength;
+            seed = seed * 31 + lockpickingLevel;
+            seed = seed * 31 + gold;
+            seed = seed * 31 + (alive ? 1 : 0);
+            seed = seed * 31 + (heroClass != null ? heroClass.ordinal() + 1 : 0);
+            seed = seed * 31 + (activeBuff != null ? activeBuff.getName().hashCode() : 0);
+            seed = seed * 31 + (activeBuff != null ? activeBuff.getBuffType().ordinal() + 1 : 0);
+            seed = seed * 31 + (superBuff ? 1 : 0);
+            seed = seed * 31 + dragonType.ordinal();
+
+            return seed;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Matchup matchup = (Matchup) o;
+            return level == matchup.level
+                    && moraleLevel == matchup.moraleLevel
+                    && strength == matchup.strength
+                    && lockpickingLevel == matchup.lockpickingLevel
+                    && gold == matchup.gold
+                    && alive == matchup.alive
+                    && superBuff == matchup.superBuff
+                    && heroClass == matchup.heroClass
+                    && Objects.equals(activeBuff, matchup.activeBuff)
+                    && dragonType == matchup.dragonType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(level, moraleLevel, strength, lockpickingLevel, gold, alive, heroClass
+                    , activeBuff, superBuff, dragonType);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.sourceartists.rpg.engine;
+
+import com.sourceartists.rpg.model.Dragon;
+import com.sourceartists.rpg.model.Gold;
+import com.sourceartists.rpg.model.TreasureType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The dragon every hero raids. Raids on a dragon only coalesce in {@link DragonRaidCoordinator},
+ * and its hoard only runs dry, when all requests raid the same instance, so requests take the
+ * dragon from here instead of creating one. The hoard lives in memory and is refilled on restart.
+ */
+@Component
+public class DragonLair {
+
+    public static final long DEFAULT_GOLD = 1_000_000;
+    public static final long DEFAULT_TREASURES = 100;
+
+    private final Dragon dragon = new Dragon();
+
+    public DragonLair(@Value("${rpg.dragon.gold:" + DEFAULT_GOLD + "}") long gold
+            , @Value("${rpg.dragon.treasures:" + DEFAULT_TREASURES + "}") long treasuresPerType) {
+        dragon.getHoard().addGold(Gold.of(gold));
+
+        for(TreasureType treasureType: TreasureType.values()){
+            dragon.getHoard().add(treasureType, treasuresPerType);
+        }
+    }
+
+    public Dragon getDragon() {
+        return dragon;
+    }
+}
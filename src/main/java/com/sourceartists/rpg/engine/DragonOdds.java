@@ -0,0 +1,39 @@
+package com.sourceartists.rpg.engine;
+
+/**
+ * Estimated probability that a hero slays a dragon, with its 95% Wilson score interval.
+ */
+public class DragonOdds {
+
+    private final long trials;
+    private final long wins;
+    private final double lowerBound;
+    private final double upperBound;
+
+    public DragonOdds(long trials, long wins, double lowerBound, double upperBound) {
+        this.trials = trials;
+        this.wins = wins;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+    }
+
+    public long getTrials() {
+        return trials;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public double getWinProbability() {
+        return trials == 0 ? 0 : (double) wins / trials;
+    }
+
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    public double getUpperBound() {
+        return upperBound;
+    }
+}
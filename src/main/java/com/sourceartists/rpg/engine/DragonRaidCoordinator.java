@@ -0,0 +1,138 @@
+package com.sourceartists.rpg.engine;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.sourceartists.rpg.model.Dragon;
+import com.sourceartists.rpg.model.Hero;
+import com.sourceartists.rpg.model.Treasure;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Serialises raids on the same dragon without a global lock. Every dragon has its own queue of
+ * steal requests; the raider that finds nobody resolving them becomes the dragon's single writer
+ * and resolves queued requests, {@value #MAX_BATCH} at a time, until its own is resolved, handing
+ * each raider its result (flat combining). It then wakes the raider at the head of the queue to
+ * take over, so nobody resolves other raiders' requests for longer than it takes to reach its own.
+ * Raids on different dragons never wait for each other.
+ */
+@Component
+public class DragonRaidCoordinator {
+
+    public static final int MAX_BATCH = 64;
+
+    private final GameEngine gameEngine;
+    // Dragons are compared by identity and dropped once nobody raids them any more.
+    private final Cache<Dragon, Raid> raids = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+
+    public DragonRaidCoordinator(GameEngine gameEngine) {
+        this.gameEngine = gameEngine;
+    }
+
+    /**
+     * @return the gold taken from the dragon's hoard, in minor units; crediting the hero is up to the caller
+     */
+    public long stealGold(Hero hero, Dragon dragon, long amountMinorUnits) {
+        return await(raid(dragon).submit(() -> gameEngine.stealGold(hero, dragon, amountMinorUnits)));
+    }
+
+    public boolean stealTreasures(Hero hero, Dragon dragon, List<Treasure> treasures) {
+        return await(raid(dragon).submit(() -> gameEngine.stealTreasures(hero, dragon, treasures)));
+    }
+
+    private Raid raid(Dragon dragon) {
+        try {
+            return raids.get(dragon, Raid::new);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> stolen) {
+        try {
+            return stolen.join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException){
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    private static class Raid {
+
+        private final Queue<Steal<?>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean resolving = new AtomicBoolean();
+
+        <T> CompletableFuture<T> submit(Supplier<T> steal) {
+            Steal<T> request = new Steal<>(steal);
+            pending.add(request);
+
+            while(!request.stolen.isDone()){
+                if(resolving.compareAndSet(false, true)){
+                    try {
+                        resolveBatch();
+                    } finally {
+                        resolving.set(false);
+                    }
+
+                    // Ours is done once it has been resolved; whatever is still queued is handed
+                    // to the raider who queued first, who is parked or about to retry.
+                    Steal<?> next = request.stolen.isDone() ? pending.peek() : null;
+                    if(next != null){
+                        LockSupport.unpark(next.raider);
+                    }
+                }else{
+                    LockSupport.park(this);
+                }
+            }
+
+            return request.stolen;
+        }
+
+        private void resolveBatch() {
+            for(int resolved = 0; resolved < MAX_BATCH; resolved++){
+                Steal<?> request = pending.poll();
+
+                if(request == null){
+                    return;
+                }
+
+                request.resolve();
+            }
+        }
+    }
+
+    private static class Steal<T> {
+
+        private final Supplier<T> steal;
+        private final Thread raider = Thread.currentThread();
+        private final CompletableFuture<T> stolen = new CompletableFuture<>();
+
+        private Steal(Supplier<T> steal) {
+            this.steal = steal;
+        }
+
+        private void resolve() {
+            try {
+                stolen.complete(steal.get());
+            } catch (RuntimeException e) {
+                stolen.completeExceptionally(e);
+            }
+
+            LockSupport.unpark(raider);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.sourceartists.rpg.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Resumable fight. Hand it back to {@link FightScheduler#run(Fight)} while it is still in progress.
+ * Starting a fight with the same seed and the same state replays it exactly.
+ */
+public class Fight<E extends Exception> {
+
+    private final long seed;
+    private final SplittableRandom random;
+    private final FightTick<E> tick;
+    private FightState state = FightState.IN_PROGRESS;
+    private long ticksSpent;
+
+    public Fight(long seed, FightTick<E> tick) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        this.tick = tick;
+    }
+
+    SplittableRandom getRandom() {
+        return random;
+    }
+
+    void tick() throws E {
+        ticksSpent++;
+        state = tick.tick();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public FightState getState() {
+        return state;
+    }
+
+    public boolean isFinished() {
+        return state != FightState.IN_PROGRESS;
+    }
+
+    public boolean isWon() {
+        return state == FightState.WON;
+    }
+
+    public long getTicksSpent() {
+        return ticksSpent;
+    }
+}
@@ -0,0 +1,71 @@
+package com.sourceartists.rpg.engine;
+
+/**
+ * Something that happened in a fight, published on the {@link FightEventBus}.
+ * Events of one fight share its seed; events outside a scheduled fight have seed 0.
+ */
+public class FightEvent {
+
+    public enum Type {
+
+        // one swing of the hero; critical and deadly flags set
+        SWING,
+        // a hit taken by the hero; critical flag set
+        HIT,
+        // one round of a castle defense; value: castle hit points left
+        SIEGE_ROUND,
+        // a fight against a dragon; deadly flag set when the dragon was slain
+        DRAGON_FIGHT,
+        // a buff was applied to the hero; name: the buff, critical flag set for a superbuff
+        BUFF_APPLIED,
+        // the fight is over; name: the final state
+        FIGHT_FINISHED
+    }
+
+    private final Type type;
+    private final long fightSeed;
+    private final Long heroId;
+    private final boolean critical;
+    private final boolean deadly;
+    private final long value;
+    private final String name;
+
+    public FightEvent(Type type, long fightSeed, Long heroId, boolean critical, boolean deadly
+            , long value, String name) {
+        this.type = type;
+        this.fightSeed = fightSeed;
+        this.heroId = heroId;
+        this.critical = critical;
+        this.deadly = deadly;
+        this.value = value;
+        this.name = name;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getFightSeed() {
+        return fightSeed;
+    }
+
+    public Long getHeroId() {
+        return heroId;
+    }
+
+    public boolean isCritical() {
+        return critical;
+    }
+
+    public boolean isDeadly() {
+        return deadly;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,50 @@
+package com.sourceartists.rpg.engine;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+
+/**
+ * Fans fight events out to subscribers. Publishing never blocks: every subscriber has its own
+ * bounded buffer and pulls events at its own pace; when a slow subscriber's buffer is full its
+ * oldest event is dropped and counted. Check {@link #hasSubscribers()} before building an event
+ * so fights nobody watches pay nothing.
+ */
+@Component
+public class FightEventBus {
+
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    private final List<FightEventSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    public void publish(FightEvent event) {
+        for(FightEventSubscription subscription: subscriptions){
+            subscription.offer(event);
+        }
+    }
+
+    public FightEventSubscription subscribe() {
+        return subscribe(DEFAULT_BUFFER_SIZE, event -> true);
+    }
+
+    /**
+     * @param bufferSize events kept for the subscriber before the oldest ones are dropped
+     * @param filter events the subscriber is interested in; it runs on the publishing fight's thread
+     */
+    public FightEventSubscription subscribe(int bufferSize, Predicate<FightEvent> filter) {
+        FightEventSubscription subscription = new FightEventSubscription(this, bufferSize, filter);
+        subscriptions.add(subscription);
+
+        return subscription;
+    }
+
+    void unsubscribe(FightEventSubscription subscription) {
+        subscriptions.remove(subscription);
+    }
+}
@@ -0,0 +1,75 @@
+package com.sourceartists.rpg.engine;
+
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Bounded buffer of fight events for one subscriber of the {@link FightEventBus}.
+ * Close it to stop receiving events.
+ */
+public class FightEventSubscription implements AutoCloseable {
+
+    private final FightEventBus bus;
+    private final BlockingQueue<FightEvent> events;
+    private final Predicate<FightEvent> filter;
+    private final AtomicLong dropped = new AtomicLong();
+
+    FightEventSubscription(FightEventBus bus, int bufferSize, Predicate<FightEvent> filter) {
+        if(bufferSize <= 0){
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+
+        this.bus = bus;
+        this.events = new ArrayBlockingQueue<>(bufferSize);
+        this.filter = filter;
+    }
+
+    void offer(FightEvent event) {
+        if(!filter.test(event)){
+            return;
+        }
+
+        while(!events.offer(event)){
+            if(events.poll() != null){
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @return the oldest buffered event, or null if there is none
+     */
+    public FightEvent poll() {
+        return events.poll();
+    }
+
+    /**
+     * @return the oldest buffered event, or null if none arrived in time
+     */
+    public FightEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return events.poll(timeout, unit);
+    }
+
+    /**
+     * @return number of events moved to {@code target}, at most {@code maxEvents}
+     */
+    public int drainTo(Collection<? super FightEvent> target, int maxEvents) {
+        return events.drainTo(target, maxEvents);
+    }
+
+    /**
+     * @return events dropped so far because the buffer was full
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public void close() {
+        bus.unsubscribe(this);
+    }
+}
@@ -0,0 +1,57 @@
+package com.sourceartists.rpg.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random streams for the engine. Inside a fight run by {@link FightScheduler} the stream is
+ * the fight's own, seeded from {@link Fight#getSeed()}, so the fight can be replayed exactly.
+ * Outside of a fight every thread gets its own stream, so request threads never contend.
+ */
+public final class FightRandom {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private static final ThreadLocal<SplittableRandom> THREAD_STREAM =
+            ThreadLocal.withInitial(SplittableRandom::new);
+    private static final ThreadLocal<SplittableRandom> FIGHT_STREAM = new ThreadLocal<>();
+
+    private FightRandom() {
+    }
+
+    public static SplittableRandom current() {
+        SplittableRandom fightStream = FIGHT_STREAM.get();
+
+        return fightStream != null ? fightStream : THREAD_STREAM.get();
+    }
+
+    /**
+     * Seed of the {@code index}-th stream derived from {@code seed}. The seeds are mixed like
+     * {@link SplittableRandom#nextLong()} output, so derived streams start far apart instead of
+     * being the same stream shifted by a few steps, as {@code seed + index * gamma} would make them.
+     */
+    public static long streamSeed(long seed, long index) {
+        return mix64(seed + (index + 1) * GOLDEN_GAMMA);
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+
+        return z ^ (z >>> 31);
+    }
+
+    static SplittableRandom bind(SplittableRandom fightStream) {
+        SplittableRandom previous = FIGHT_STREAM.get();
+        FIGHT_STREAM.set(fightStream);
+
+        return previous;
+    }
+
+    static void restore(SplittableRandom previous) {
+        if(previous == null){
+            FIGHT_STREAM.remove();
+        }else{
+            FIGHT_STREAM.set(previous);
+        }
+    }
+}
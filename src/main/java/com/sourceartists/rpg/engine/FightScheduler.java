@@ -0,0 +1,62 @@
+package com.sourceartists.rpg.engine;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs fights for at most {@code tickBudget} ticks per call, so that no fight
+ * holds its caller longer than the budget allows.
+ */
+public class FightScheduler {
+
+    public static final int DEFAULT_TICK_BUDGET = 10_000;
+
+    private final int tickBudget;
+    private final AtomicLong nextSeed;
+
+    public FightScheduler(int tickBudget) {
+        this(tickBudget, new SplittableRandom().nextLong());
+    }
+
+    public FightScheduler(int tickBudget, long baseSeed) {
+        if(tickBudget <= 0){
+            throw new IllegalArgumentException("Tick budget must be positive");
+        }
+
+        this.tickBudget = tickBudget;
+        this.nextSeed = new AtomicLong(baseSeed);
+    }
+
+    public int getTickBudget() {
+        return tickBudget;
+    }
+
+    /**
+     * @return a seed no other fight of this scheduler was started with, for {@link #start(long, FightTick)}
+     */
+    public long nextSeed() {
+        return nextSeed.getAndIncrement();
+    }
+
+    public <E extends Exception> Fight<E> start(FightTick<E> tick) throws E {
+        return start(nextSeed(), tick);
+    }
+
+    public <E extends Exception> Fight<E> start(long seed, FightTick<E> tick) throws E {
+        return run(new Fight<>(seed, tick));
+    }
+
+    public <E extends Exception> Fight<E> run(Fight<E> fight) throws E {
+        SplittableRandom previous = FightRandom.bind(fight.getRandom());
+
+        try {
+            for(int ticks = 0; ticks < tickBudget && !fight.isFinished(); ticks++){
+                fight.tick();
+            }
+        } finally {
+            FightRandom.restore(previous);
+        }
+
+        return fight;
+    }
+}
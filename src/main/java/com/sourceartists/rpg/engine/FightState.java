@@ -0,0 +1,8 @@
+package com.sourceartists.rpg.engine;
+
+public enum FightState {
+
+    IN_PROGRESS,
+    WON,
+    LOST
+}
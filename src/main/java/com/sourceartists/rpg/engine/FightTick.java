@@ -0,0 +1,10 @@
+package com.sourceartists.rpg.engine;
+
+/**
+ * A single step of a fight. Returns {@link FightState#IN_PROGRESS} until the fight is decided.
+ */
+@FunctionalInterface
+public interface FightTick<E extends Exception> {
+
+    FightState tick() throws E;
+}
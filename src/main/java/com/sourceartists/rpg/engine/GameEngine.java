@@ -2,24 +2,113 @@ package com.sourceartists.rpg.engine;
 
 import com.sourceartists.rpg.exception.HeroSlainedByDragonException;
 import com.sourceartists.rpg.model.*;
+import com.sourceartists.rpg.trace.GameTrace;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 @Component
 public class GameEngine {
+
+    public static final int CRITICAL_HIT_CHANCE_PERCENT = 10;
+    public static final int SUPERBUFF_CHANCE_PERCENT = 50;
+    public static final int MIN_BONUS_MONEY = 50;
+    public static final int MAX_BONUS_MONEY = 150;
+    public static final int MAX_ALLY_DAMAGE = 20;
+    public static final int REWARD_PREFETCH_CAPACITY = 4096;
+
+    private static final BuffDefinition[] RANDOM_BUFFS = BuffDefinition.forEveryType("random buff");
+
+    private volatile SuperBuffTable superBuffTable = new SuperBuffTable(SuperBuffTable.DEFAULT_MIN_LEVEL
+            , SuperBuffTable.DEFAULT_MIN_MORALE, SUPERBUFF_CHANCE_PERCENT);
+
+    private final RewardPrefetcher rewardPrefetcher = new RewardPrefetcher();
+    private final LongSupplier bonusMoney = rewardPrefetcher.prefetchLong(
+            this::createBonusMoney, REWARD_PREFETCH_CAPACITY);
+    private final Supplier<Buff> randomBuffs = rewardPrefetcher.prefetch(
+            this::createRandomBuff, REWARD_PREFETCH_CAPACITY);
+
+    /**
+     * Starts generating bonus money and buffs ahead of demand. Until then, and whenever
+     * the prefetched rewards run out, they are generated on the caller's thread.
+     */
+    @PostConstruct
+    public void startPrefetching() {
+        rewardPrefetcher.start();
+    }
+
+    @PreDestroy
+    public void stopPrefetching() {
+        rewardPrefetcher.stop();
+    }
+
+    /**
+     * Not prefetched: there are no special spells to generate yet, so a ring of them would stay
+     * empty and wake its refiller on every call.
+     */
     public Spell generateSpecialSpell() {
 
         return null;
     }
 
-    public BigDecimal generateBonusMoney() {
-        return null;
+    public Spell[] generateSpecialSpells(int count) {
+        Spell[] spells = new Spell[count];
+
+        for(int spell = 0; spell < count; spell++){
+            spells[spell] = generateSpecialSpell();
+        }
+
+        return spells;
+    }
+
+    /**
+     * @return bonus money in minor units, see {@link Gold}
+     */
+    public long generateBonusMoney() {
+        return bonusMoney.getAsLong();
+    }
+
+    private long createBonusMoney() {
+        return Gold.of(FightRandom.current().nextInt(MIN_BONUS_MONEY, MAX_BONUS_MONEY + 1));
+    }
+
+    /**
+     * @return {@code count} bonus money amounts in minor units, see {@link Gold}
+     */
+    public long[] generateBonusMoney(int count) {
+        long[] bonusMoney = new long[count];
+
+        for(int money = 0; money < count; money++){
+            bonusMoney[money] = generateBonusMoney();
+        }
+
+        return bonusMoney;
     }
 
     public Buff generateRandomBuff() {
-        return null;
+        return randomBuffs.get();
+    }
+
+    private Buff createRandomBuff() {
+        return new Buff(RANDOM_BUFFS[FightRandom.current().nextInt(RANDOM_BUFFS.length)]);
+    }
+
+    public Buff[] generateRandomBuffs(int count) {
+        Buff[] buffs = new Buff[count];
+
+        for(int buff = 0; buff < count; buff++){
+            buffs[buff] = generateRandomBuff();
+        }
+
+        return buffs;
     }
 
     public void castSpell(Spell mostPowerfullOffensiveSpell, Enemy enemy) {
@@ -31,7 +120,30 @@ public class GameEngine {
     }
 
     public boolean determineCritical(Weapon equippedWeapon, Hero hero) {
-        return false;
+        return FightRandom.current().nextInt(100) < CRITICAL_HIT_CHANCE_PERCENT;
+    }
+
+    /**
+     * Resolves up to {@code swings.capacity()} swings of the hero against the enemy
+     * in one call, stopping at the first deadly one.
+     */
+    public void resolveSwings(Weapon weapon, Hero hero, Enemy enemy, SwingBatch swings) {
+        swings.reset();
+        Object traced = GameTrace.swingsStarted();
+
+        while(!swings.isFull()){
+            boolean criticalHit = determineCritical(weapon, hero);
+            AttackOutcome attackOutcome = attack(weapon, enemy, criticalHit);
+            boolean deadly = attackOutcome != null && attackOutcome.isDeadly();
+
+            swings.record(criticalHit, deadly);
+
+            if(deadly){
+                break;
+            }
+        }
+
+        GameTrace.swingsResolved(traced, swings);
     }
 
     public final boolean attemptToOpen(Lockpick lockpick, Integer hero, Integer chest) {
@@ -39,7 +151,23 @@ public class GameEngine {
     }
 
     public boolean giveSuperBuff(Integer level, Integer moraleLevel) {
-        return false;
+        if(level == null || moraleLevel == null){
+            return false;
+        }
+
+        return superBuffTable.roll(level, moraleLevel, FightRandom.current());
+    }
+
+    public SuperBuffTable getSuperBuffTable() {
+        return superBuffTable;
+    }
+
+    @Autowired
+    public void configureSuperBuff(
+            @Value("${rpg.superbuff.min-level:" + SuperBuffTable.DEFAULT_MIN_LEVEL + "}") int minLevel
+            , @Value("${rpg.superbuff.min-morale:" + SuperBuffTable.DEFAULT_MIN_MORALE + "}") int minMorale
+            , @Value("${rpg.superbuff.chance-percent:" + SUPERBUFF_CHANCE_PERCENT + "}") int chancePercent) {
+        superBuffTable = new SuperBuffTable(minLevel, minMorale, chancePercent);
     }
 
     public boolean attemptToOpenDoor(Lockpick lockpick, Integer lockpickingLevel) {
@@ -54,6 +182,14 @@ public class GameEngine {
 
     }
 
+    /**
+     * Damage one ally deals to the castle in a siege volley. Must not touch shared state,
+     * allies are resolved in parallel.
+     */
+    public long allyAttackDamage(Hero ally, Castle castle, SplittableRandom random) {
+        return random.nextInt(MAX_ALLY_DAMAGE + 1);
+    }
+
 
 
     public Hit hit(Enemy enemy, Hero hero) {
@@ -64,12 +200,21 @@ public class GameEngine {
         return false;
     }
 
-    public boolean stealGold(Hero hero, Dragon dragon) {
-        return false;
+    /**
+     * Takes up to {@code amountMinorUnits} of gold out of the dragon's hoard; the caller credits
+     * the hero, so the credit can be journaled together with it.
+     *
+     * @return the gold taken, in minor units
+     */
+    public long stealGold(Hero hero, Dragon dragon, long amountMinorUnits) {
+        return dragon.getHoard().takeGold(amountMinorUnits);
     }
 
+    /**
+     * @return whether the treasures were stolen; either all of them are taken from the hoard or none
+     */
     public boolean stealTreasures(Hero hero, Dragon dragon, List<Treasure> treasures) {
-        return false;
+        return dragon.getHoard().removeAll(treasures);
     }
 
     public void fightDragonGuards(Hero hero, Dragon dragon) throws HeroSlainedByDragonException {
@@ -0,0 +1,53 @@
+package com.sourceartists.rpg.engine;
+
+import java.util.function.LongSupplier;
+
+/**
+ * {@link PrefetchRing} of primitive longs, so values go through without being boxed.
+ */
+public class LongPrefetchRing extends RingSequencer {
+
+    // Plain slots: a value is written before its slot's sequence is published and read after
+    // the sequence is seen, which orders it for the other side.
+    private final long[] values;
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public LongPrefetchRing(int capacity) {
+        super(capacity);
+        this.values = new long[capacity()];
+    }
+
+    /**
+     * @return false if the ring is full
+     */
+    public boolean offer(long value) {
+        long position = claimOffer();
+
+        if(position < 0){
+            return false;
+        }
+
+        values[slot(position)] = value;
+        publishOffer(position);
+
+        return true;
+    }
+
+    /**
+     * @return the oldest value, or the value of {@code ifEmpty} if the ring is empty
+     */
+    public long poll(LongSupplier ifEmpty) {
+        long position = claimPoll();
+
+        if(position < 0){
+            return ifEmpty.getAsLong();
+        }
+
+        long value = values[slot(position)];
+        releasePoll(position);
+
+        return value;
+    }
+}
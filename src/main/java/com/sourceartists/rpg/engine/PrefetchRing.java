@@ -0,0 +1,58 @@
+package com.sourceartists.rpg.engine;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer multi-consumer queue (Vyukov's array queue), see
+ * {@link RingSequencer}. {@link LongPrefetchRing} holds primitive longs the same way.
+ */
+public class PrefetchRing<T> extends RingSequencer {
+
+    private final AtomicReferenceArray<T> slots;
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public PrefetchRing(int capacity) {
+        super(capacity);
+        this.slots = new AtomicReferenceArray<>(capacity());
+    }
+
+    /**
+     * @return false if the ring is full
+     */
+    public boolean offer(T element) {
+        if(element == null){
+            throw new NullPointerException("Ring does not hold nulls");
+        }
+
+        long position = claimOffer();
+
+        if(position < 0){
+            return false;
+        }
+
+        slots.lazySet(slot(position), element);
+        publishOffer(position);
+
+        return true;
+    }
+
+    /**
+     * @return the oldest element, or null if the ring is empty
+     */
+    public T poll() {
+        long position = claimPoll();
+
+        if(position < 0){
+            return null;
+        }
+
+        int slot = slot(position);
+        T element = slots.get(slot);
+        slots.lazySet(slot, null);
+        releasePoll(position);
+
+        return element;
+    }
+}
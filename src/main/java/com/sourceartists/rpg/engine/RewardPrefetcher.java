@@ -0,0 +1,181 @@
+package com.sourceartists.rpg.engine;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Generates rewards ahead of demand. Every reward kind gets a {@link PrefetchRing}, or a
+ * {@link LongPrefetchRing} for rewards that are plain numbers, that one
+ * background thread keeps topped up; takers dequeue a ready reward and only generate one
+ * themselves when the ring has run dry. A taker that finds a ring below half full wakes the
+ * refiller, which otherwise sleeps for {@link #IDLE_PARK_MILLIS} ms between rounds.
+ */
+public class RewardPrefetcher {
+
+    public static final long IDLE_PARK_MILLIS = 10;
+
+    private final List<Refillable> prefetched = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean sleeping = new AtomicBoolean();
+    private volatile Thread refiller;
+
+    /**
+     * @return supplier of prefetched rewards; {@code generator} must be safe to call from any thread
+     */
+    public <T> Supplier<T> prefetch(Supplier<T> generator, int capacity) {
+        Prefetched<T> rewards = new Prefetched<>(this, generator, capacity);
+        prefetched.add(rewards);
+
+        return rewards;
+    }
+
+    /**
+     * @return supplier of prefetched numbers; {@code generator} must be safe to call from any thread
+     */
+    public LongSupplier prefetchLong(LongSupplier generator, int capacity) {
+        LongPrefetched rewards = new LongPrefetched(this, generator, capacity);
+        prefetched.add(rewards);
+
+        return rewards;
+    }
+
+    public synchronized void start() {
+        if(refiller != null){
+            return;
+        }
+
+        refiller = new Thread(this::refill, "reward-prefetcher");
+        refiller.setDaemon(true);
+        refiller.start();
+    }
+
+    public synchronized void stop() {
+        Thread thread = refiller;
+        refiller = null;
+
+        if(thread != null){
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void refill() {
+        Thread self = Thread.currentThread();
+
+        while(refiller == self){
+            int generated = 0;
+
+            for(Refillable rewards: prefetched){
+                generated += rewards.refill();
+            }
+
+            if(generated == 0){
+                sleeping.set(true);
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(IDLE_PARK_MILLIS));
+                sleeping.set(false);
+            }
+        }
+    }
+
+    private void wake() {
+        if(sleeping.compareAndSet(true, false)){
+            Thread thread = refiller;
+
+            if(thread != null){
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    private interface Refillable {
+
+        /**
+         * @return rewards generated; called by the refiller thread only
+         */
+        int refill();
+    }
+
+    private static class Prefetched<T> implements Supplier<T>, Refillable {
+
+        private final RewardPrefetcher prefetcher;
+        private final Supplier<T> generator;
+        private final PrefetchRing<T> ring;
+        private final int lowWater;
+
+        private Prefetched(RewardPrefetcher prefetcher, Supplier<T> generator, int capacity) {
+            this.prefetcher = prefetcher;
+            this.generator = generator;
+            this.ring = new PrefetchRing<>(capacity);
+            this.lowWater = ring.capacity() / 2;
+        }
+
+        @Override
+        public T get() {
+            T reward = ring.poll();
+
+            if(ring.size() < lowWater){
+                prefetcher.wake();
+            }
+
+            return reward != null ? reward : generator.get();
+        }
+
+        @Override
+        public int refill() {
+            int generated = 0;
+
+            while(ring.size() < ring.capacity()){
+                T reward = generator.get();
+
+                // A generator that has nothing to give is simply not prefetched.
+                if(reward == null || !ring.offer(reward)){
+                    break;
+                }
+
+                generated++;
+            }
+
+            return generated;
+        }
+    }
+
+    private static class LongPrefetched implements LongSupplier, Refillable {
+
+        private final RewardPrefetcher prefetcher;
+        private final LongSupplier generator;
+        private final LongPrefetchRing ring;
+        private final int lowWater;
+
+        private LongPrefetched(RewardPrefetcher prefetcher, LongSupplier generator, int capacity) {
+            this.prefetcher = prefetcher;
+            this.generator = generator;
+            this.ring = new LongPrefetchRing(capacity);
+            this.lowWater = ring.capacity() / 2;
+        }
+
+        @Override
+        public long getAsLong() {
+            long reward = ring.poll(generator);
+
+            if(ring.size() < lowWater){
+                prefetcher.wake();
+            }
+
+            return reward;
+        }
+
+        @Override
+        public int refill() {
+            int generated = 0;
+
+            while(ring.size() < ring.capacity() && ring.offer(generator.getAsLong())){
+                generated++;
+            }
+
+            return generated;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.sourceartists.rpg.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Slot bookkeeping of Vyukov's bounded array queue, shared by the prefetch rings. Every slot
+ * carries a sequence number telling whether it is ready to be written or read for the current
+ * lap, so producers and consumers only race on their own position counter. A ring claims a
+ * position, moves its element in or out of {@link #slot(long)} and then hands the slot on.
+ */
+abstract class RingSequencer {
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final AtomicLong enqueuePosition = new AtomicLong();
+    private final AtomicLong dequeuePosition = new AtomicLong();
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    RingSequencer(int capacity) {
+        if(capacity <= 0 || capacity > 1 << 30){
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        }
+
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        size = Math.max(size, 1);
+
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+
+        for(int slot = 0; slot < size; slot++){
+            sequences.set(slot, slot);
+        }
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return number of elements, exact only while nobody offers or polls
+     */
+    public int size() {
+        long size = enqueuePosition.get() - dequeuePosition.get();
+
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    final int slot(long position) {
+        return (int) position & mask;
+    }
+
+    /**
+     * @return position to write, or -1 if the ring is full
+     */
+    final long claimOffer() {
+        while(true){
+            long position = enqueuePosition.get();
+            long lap = sequences.get(slot(position)) - position;
+
+            if(lap == 0){
+                if(enqueuePosition.compareAndSet(position, position + 1)){
+                    return position;
+                }
+            }else if(lap < 0){
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Makes the element written at {@code position} visible to consumers.
+     */
+    final void publishOffer(long position) {
+        sequences.set(slot(position), position + 1);
+    }
+
+    /**
+     * @return position to read, or -1 if the ring is empty
+     */
+    final long claimPoll() {
+        while(true){
+            long position = dequeuePosition.get();
+            long lap = sequences.get(slot(position)) - (position + 1);
+
+            if(lap == 0){
+                if(dequeuePosition.compareAndSet(position, position + 1)){
+                    return position;
+                }
+            }else if(lap < 0){
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Hands the slot read at {@code position} back to producers for the next lap.
+     */
+    final void releasePoll(long position) {
+        sequences.set(slot(position), position + mask + 1);
+    }
+}
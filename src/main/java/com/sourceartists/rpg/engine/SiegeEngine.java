@@ -0,0 +1,68 @@
+package com.sourceartists.rpg.engine;
+
+import com.sourceartists.rpg.model.Castle;
+import com.sourceartists.rpg.model.Hero;
+import org.springframework.stereotype.Component;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Resolves a volley of the whole army against a castle. The army is split into squads of
+ * {@value #SQUAD_SIZE}; every squad rolls from its own stream derived from the volley seed and
+ * its position, so the merged damage does not depend on scheduling and large armies can be
+ * resolved in parallel on the common fork-join pool.
+ */
+@Component
+public class SiegeEngine {
+
+    public static final int PARALLEL_THRESHOLD = 256;
+    public static final int SQUAD_SIZE = 64;
+
+    private final GameEngine gameEngine;
+    private final int parallelThreshold;
+
+    public SiegeEngine(GameEngine gameEngine) {
+        this(gameEngine, PARALLEL_THRESHOLD);
+    }
+
+    SiegeEngine(GameEngine gameEngine, int parallelThreshold) {
+        this.gameEngine = gameEngine;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * @param army allies of the hero, taken once per fight and reused for every volley
+     */
+    public long volley(Hero[] army, Castle castle, long volleySeed) {
+        if(army.length == 0){
+            return 0;
+        }
+
+        IntStream squads = IntStream.range(0, (army.length + SQUAD_SIZE - 1) / SQUAD_SIZE);
+
+        if(army.length >= parallelThreshold){
+            squads = squads.parallel();
+        }
+
+        long damage = squads
+                .mapToLong(squad -> squadDamage(army, squad, castle, volleySeed))
+                .sum();
+
+        castle.receiveDamage(damage);
+
+        return damage;
+    }
+
+    private long squadDamage(Hero[] army, int squad, Castle castle, long volleySeed) {
+        SplittableRandom random = new SplittableRandom(FightRandom.streamSeed(volleySeed, squad));
+        int lastSoldier = Math.min(army.length, (squad + 1) * SQUAD_SIZE);
+        long damage = 0;
+
+        for(int soldier = squad * SQUAD_SIZE; soldier < lastSoldier; soldier++){
+            damage += gameEngine.allyAttackDamage(army[soldier], castle, random);
+        }
+
+        return damage;
+    }
+}
@@ -0,0 +1,135 @@
+package com.sourceartists.rpg.engine;
+
+import com.sourceartists.rpg.model.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+
+/**
+ * Strength gain for every (morale, hero class, active buff type, dragon type) combination,
+ * precomputed from additive modifiers so a lookup is a single array read. See
+ * {@code strength-modifiers.properties} for the format. Morale levels that are not configured
+ * contribute nothing; a hero without a class or buff falls into its own slot. Morale levels
+ * above {@value #MAX_MORALE_LEVEL} cannot be configured, as every level gets a row.
+ */
+public class StrengthModifierTable {
+
+    public static final String DEFAULT_RESOURCE = "strength-modifiers.properties";
+    public static final int MAX_MORALE_LEVEL = 255;
+
+    private static final HeroClass[] HERO_CLASSES = HeroClass.values();
+    private static final BuffType[] BUFF_TYPES = BuffType.values();
+    private static final DragonType[] DRAGON_TYPES = DragonType.values();
+
+    private static final int DRAGON_STRIDE = 1;
+    private static final int BUFF_STRIDE = DRAGON_TYPES.length * DRAGON_STRIDE;
+    private static final int CLASS_STRIDE = (BUFF_TYPES.length + 1) * BUFF_STRIDE;
+    private static final int MORALE_STRIDE = (HERO_CLASSES.length + 1) * CLASS_STRIDE;
+
+    private final int maxMorale;
+    private final int[] gains;
+
+    private StrengthModifierTable(int[] moraleGains, int[] classGains, int[] buffGains, int[] dragonGains) {
+        this.maxMorale = moraleGains.length - 1;
+        // One extra morale row for every morale level that is not configured.
+        this.gains = new int[(moraleGains.length + 1) * MORALE_STRIDE];
+
+        for(int morale = 0; morale <= moraleGains.length; morale++){
+            int moraleGain = morale < moraleGains.length ? moraleGains[morale] : 0;
+
+            for(int heroClass = 0; heroClass < classGains.length; heroClass++){
+                for(int buff = 0; buff < buffGains.length; buff++){
+                    for(int dragon = 0; dragon < dragonGains.length; dragon++){
+                        gains[morale * MORALE_STRIDE + heroClass * CLASS_STRIDE + buff * BUFF_STRIDE
+                                + dragon * DRAGON_STRIDE] = moraleGain + classGains[heroClass]
+                                + buffGains[buff] + dragonGains[dragon];
+                    }
+                }
+            }
+        }
+    }
+
+    public static StrengthModifierTable load() {
+        return load(DEFAULT_RESOURCE);
+    }
+
+    public static StrengthModifierTable load(String resource) {
+        Properties modifiers = new Properties();
+
+        try(InputStream in = StrengthModifierTable.class.getClassLoader().getResourceAsStream(resource)){
+            if(in == null){
+                throw new IllegalArgumentException("Strength modifiers not found on the classpath: " + resource);
+            }
+
+            modifiers.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read strength modifiers " + resource, e);
+        }
+
+        return of(modifiers);
+    }
+
+    public static StrengthModifierTable of(Properties modifiers) {
+        int maxMorale = 0;
+        for(String key: modifiers.stringPropertyNames()){
+            if(key.startsWith("morale.")){
+                maxMorale = Math.max(maxMorale, moraleLevel(key));
+            }
+        }
+
+        int[] moraleGains = new int[maxMorale + 1];
+        int[] classGains = new int[HERO_CLASSES.length + 1];
+        int[] buffGains = new int[BUFF_TYPES.length + 1];
+        int[] dragonGains = new int[DRAGON_TYPES.length];
+
+        for(String key: modifiers.stringPropertyNames()){
+            int gain = Integer.parseInt(modifiers.getProperty(key).trim());
+            String name = key.substring(key.indexOf('.') + 1);
+
+            if(key.startsWith("morale.")){
+                moraleGains[moraleLevel(key)] = gain;
+            }else if(key.startsWith("class.")){
+                classGains[HeroClass.valueOf(name).ordinal() + 1] = gain;
+            }else if(key.startsWith("buff.")){
+                buffGains[BuffType.valueOf(name).ordinal() + 1] = gain;
+            }else if(key.startsWith("dragon.")){
+                dragonGains[DragonType.valueOf(name).ordinal()] = gain;
+            }else{
+                throw new IllegalArgumentException("Unknown strength modifier: " + key);
+            }
+        }
+
+        return new StrengthModifierTable(moraleGains, classGains, buffGains, dragonGains);
+    }
+
+    private static int moraleLevel(String key) {
+        int morale = Integer.parseInt(key.substring("morale.".length()));
+
+        if(morale < 0 || morale > MAX_MORALE_LEVEL){
+            throw new IllegalArgumentException("Morale level must be between 0 and " + MAX_MORALE_LEVEL
+                    + ": " + key);
+        }
+
+        return morale;
+    }
+
+    public int strengthGain(Hero hero, Dragon dragon) {
+        Integer morale = hero.getMoraleLevel();
+        HeroClass heroClass = hero.getHeroClass();
+        Buff buff = hero.getActiveBuff();
+        BuffType buffType = buff != null ? buff.getBuffType() : null;
+
+        return strengthGain(morale != null ? morale : -1, heroClass, buffType, dragon.getDragonType());
+    }
+
+    public int strengthGain(int morale, HeroClass heroClass, BuffType buffType, DragonType dragonType) {
+        int moraleRow = morale >= 0 && morale <= maxMorale ? morale : maxMorale + 1;
+
+        return gains[moraleRow * MORALE_STRIDE
+                + (heroClass != null ? heroClass.ordinal() + 1 : 0) * CLASS_STRIDE
+                + (buffType != null ? buffType.ordinal() + 1 : 0) * BUFF_STRIDE
+                + dragonType.ordinal() * DRAGON_STRIDE];
+    }
+}
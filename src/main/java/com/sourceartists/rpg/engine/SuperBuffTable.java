@@ -0,0 +1,92 @@
+package com.sourceartists.rpg.engine;
+
+import com.sourceartists.rpg.model.Hero;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Superbuff chance for every (level, morale) pair, precomputed so a lookup is a single
+ * array read. Levels and morale above the table are clamped to its last row and column,
+ * which is safe because eligibility only grows with both.
+ */
+public class SuperBuffTable {
+
+    public static final int DEFAULT_MIN_LEVEL = 75;
+    public static final int DEFAULT_MIN_MORALE = 8;
+    public static final int MAX_TABULATED_LEVEL = 127;
+    public static final int MAX_TABULATED_MORALE = 15;
+
+    private static final int MORALE_STRIDE = MAX_TABULATED_MORALE + 1;
+
+    private final int minLevel;
+    private final int minMorale;
+    private final int chancePercent;
+    private final byte[] chances = new byte[(MAX_TABULATED_LEVEL + 1) * MORALE_STRIDE];
+
+    public SuperBuffTable(int minLevel, int minMorale, int chancePercent) {
+        if(minLevel > MAX_TABULATED_LEVEL || minMorale > MAX_TABULATED_MORALE){
+            throw new IllegalArgumentException("Superbuff thresholds exceed the table: level "
+                    + minLevel + ", morale " + minMorale);
+        }
+
+        if(chancePercent < 0 || chancePercent > 100){
+            throw new IllegalArgumentException("Superbuff chance must be a percentage: " + chancePercent);
+        }
+
+        this.minLevel = minLevel;
+        this.minMorale = minMorale;
+        this.chancePercent = chancePercent;
+
+        for(int level = Math.max(0, minLevel); level <= MAX_TABULATED_LEVEL; level++){
+            for(int morale = Math.max(0, minMorale); morale <= MAX_TABULATED_MORALE; morale++){
+                chances[level * MORALE_STRIDE + morale] = (byte) chancePercent;
+            }
+        }
+    }
+
+    public int getMinLevel() {
+        return minLevel;
+    }
+
+    public int getMinMorale() {
+        return minMorale;
+    }
+
+    public int getChancePercent() {
+        return chancePercent;
+    }
+
+    public int chancePercent(int level, int morale) {
+        if(level < 0 || morale < 0){
+            return 0;
+        }
+
+        return chances[Math.min(level, MAX_TABULATED_LEVEL) * MORALE_STRIDE
+                + Math.min(morale, MAX_TABULATED_MORALE)];
+    }
+
+    public boolean isEligible(int level, int morale) {
+        return chancePercent(level, morale) > 0;
+    }
+
+    public boolean roll(int level, int morale, SplittableRandom random) {
+        int chance = chancePercent(level, morale);
+
+        return chance > 0 && random.nextInt(100) < chance;
+    }
+
+    public List<Hero> qualifying(Collection<Hero> heroes) {
+        List<Hero> qualifying = new ArrayList<>();
+
+        for(Hero hero: heroes){
+            if(isEligible(hero.getLevel(), hero.getMoraleLevel())){
+                qualifying.add(hero);
+            }
+        }
+
+        return qualifying;
+    }
+}
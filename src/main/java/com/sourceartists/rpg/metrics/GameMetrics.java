@@ -0,0 +1,74 @@
+package com.sourceartists.rpg.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters the fight loops and lockpicking report into. All meters are registered up front,
+ * so recording a sample is a plain update of an existing meter.
+ */
+@Component
+public class GameMetrics {
+
+    public static final String FIGHT_LOOPS = "rpg.fight.loops";
+    public static final String LOCKPICK_ATTEMPTS = "rpg.lockpick.attempts";
+
+    /**
+     * Histogram range of the fight loops; longer fights only count towards the overflow bucket.
+     */
+    public static final long MAX_EXPECTED_LOOPS = 100_000;
+
+    private final DistributionSummary bossFightSwings;
+    private final DistributionSummary heroDiesHits;
+    private final DistributionSummary castleDefenseRounds;
+    private final Counter chestLockpickAttempts;
+    private final Counter doorLockpickAttempts;
+
+    public GameMetrics(MeterRegistry meterRegistry) {
+        this.bossFightSwings = fightLoops(meterRegistry, "boss", "swings");
+        this.heroDiesHits = fightLoops(meterRegistry, "hero-dies", "hits");
+        this.castleDefenseRounds = fightLoops(meterRegistry, "castle-defense", "rounds");
+        this.chestLockpickAttempts = lockpickAttempts(meterRegistry, "chest");
+        this.doorLockpickAttempts = lockpickAttempts(meterRegistry, "castle-door");
+    }
+
+    private static DistributionSummary fightLoops(MeterRegistry meterRegistry, String fight, String unit) {
+        return DistributionSummary.builder(FIGHT_LOOPS)
+                .description("Loop iterations a fight took until it was decided")
+                .baseUnit(unit)
+                .tag("fight", fight)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1L)
+                .maximumExpectedValue(MAX_EXPECTED_LOOPS)
+                .register(meterRegistry);
+    }
+
+    private static Counter lockpickAttempts(MeterRegistry meterRegistry, String lock) {
+        return Counter.builder(LOCKPICK_ATTEMPTS)
+                .description("Lockpicks tried on a lock")
+                .tag("lock", lock)
+                .register(meterRegistry);
+    }
+
+    public void recordBossFight(long swings) {
+        bossFightSwings.record(swings);
+    }
+
+    public void recordHeroDies(long hits) {
+        heroDiesHits.record(hits);
+    }
+
+    public void recordCastleDefense(long rounds) {
+        castleDefenseRounds.record(rounds);
+    }
+
+    public void recordChestLockpickAttempts(int attempts) {
+        chestLockpickAttempts.increment(attempts);
+    }
+
+    public void recordDoorLockpickAttempts(int attempts) {
+        doorLockpickAttempts.increment(attempts);
+    }
+}
@@ -0,0 +1,60 @@
+package com.sourceartists.rpg.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public {@code GameController} operation as {@value #OPERATIONS}, tagged with class
+ * and method. Timers are looked up once per method and then reused. Only calls that go through
+ * the Spring proxy are timed, and each of them allocates a join point, so the engine is not
+ * advised: its per-ally and per-swing calls report through the meters {@link GameMetrics}
+ * registers up front instead.
+ */
+@Aspect
+@Component
+public class GameMetricsAspect {
+
+    public static final String OPERATIONS = "rpg.operations";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    public GameMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.sourceartists.rpg.controller.GameController.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Timer timer = timers.get(method);
+
+        if(timer == null){
+            timer = timers.computeIfAbsent(method, this::timer);
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(Method method) {
+        return Timer.builder(OPERATIONS)
+                .tag("class", method.getDeclaringClass().getSimpleName())
+                .tag("method", method.getName())
+                .register(meterRegistry);
+    }
+}
@@ -2,29 +2,37 @@ package com.sourceartists.rpg.model;
 
 public class Buff {
 
-    private String name;
-    private BuffType buffType;
-    private Integer timeLeft = 60;
+    private BuffDefinition definition;
+    // seconds until the buff wears off
+    private volatile int timeLeft;
 
     public Buff(String name, BuffType buffType){
-        this.name = name;
-        this.buffType = buffType;
+        this(BuffDefinition.of(name, buffType));
+    }
+
+    public Buff(BuffDefinition definition){
+        this.definition = definition;
+        this.timeLeft = definition.getDuration();
+    }
+
+    public BuffDefinition getDefinition() {
+        return definition;
     }
 
     public String getName() {
-        return name;
+        return definition.getName();
     }
 
     public void setName(String name) {
-        this.name = name;
+        this.definition = BuffDefinition.of(name, definition.getBuffType(), definition.getDuration());
     }
 
     public BuffType getBuffType() {
-        return buffType;
+        return definition.getBuffType();
     }
 
     public void setBuffType(BuffType buffType) {
-        this.buffType = buffType;
+        this.definition = BuffDefinition.of(definition.getName(), buffType, definition.getDuration());
     }
 
     public Integer getTimeLeft() {
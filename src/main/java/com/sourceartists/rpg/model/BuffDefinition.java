@@ -0,0 +1,77 @@
+package com.sourceartists.rpg.model;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.util.Objects;
+
+/**
+ * Immutable part of a buff, shared by every {@link Buff} with the same name and type. Definitions
+ * are interned weakly: one that no buff refers to any more is dropped, so renamed buffs do not
+ * pile up.
+ */
+public final class BuffDefinition {
+
+    public static final int DEFAULT_DURATION = 60;
+
+    private static final Interner<BuffDefinition> DEFINITIONS = Interners.newWeakInterner();
+
+    private final String name;
+    private final BuffType buffType;
+    private final int duration;
+
+    private BuffDefinition(String name, BuffType buffType, int duration) {
+        this.name = name;
+        this.buffType = buffType;
+        this.duration = duration;
+    }
+
+    public static BuffDefinition of(String name, BuffType buffType) {
+        return of(name, buffType, DEFAULT_DURATION);
+    }
+
+    public static BuffDefinition of(String name, BuffType buffType, int duration) {
+        return DEFINITIONS.intern(new BuffDefinition(name, buffType, duration));
+    }
+
+    /**
+     * @return definitions with the given name for every buff type, indexed by {@link BuffType#ordinal()}
+     */
+    public static BuffDefinition[] forEveryType(String name) {
+        BuffType[] buffTypes = BuffType.values();
+        BuffDefinition[] definitions = new BuffDefinition[buffTypes.length];
+
+        for(BuffType buffType: buffTypes){
+            definitions[buffType.ordinal()] = of(name, buffType);
+        }
+
+        return definitions;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BuffType getBuffType() {
+        return buffType;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BuffDefinition that = (BuffDefinition) o;
+        return duration == that.duration &&
+                Objects.equals(name, that.name) &&
+                buffType == that.buffType;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, buffType, duration);
+    }
+}
@@ -0,0 +1,8 @@
+package com.sourceartists.rpg.model;
+
+public interface BuffHolder {
+
+    Buff getActiveBuff();
+
+    boolean compareAndSetActiveBuff(Buff expectedBuff, Buff activeBuff);
+}
@@ -2,7 +2,19 @@ package com.sourceartists.rpg.model;
 
 public class Castle {
 
+    public static final long DEFAULT_HIT_POINTS = 10_000;
+
+    private Long id;
     private boolean taken;
+    private long hitPoints = DEFAULT_HIT_POINTS;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
 
     public void startDefense(Hero hero) {
 
@@ -13,7 +25,7 @@ public class Castle {
     }
 
     public boolean taken() {
-        return false;
+        return taken;
     }
 
     public boolean isTaken() {
@@ -27,4 +39,20 @@ public class Castle {
     public void shootAtHeroAndHisArmy(Hero hero) {
 
     }
+
+    public long getHitPoints() {
+        return hitPoints;
+    }
+
+    public void setHitPoints(long hitPoints) {
+        this.hitPoints = hitPoints;
+    }
+
+    public void receiveDamage(long damage) {
+        hitPoints -= damage;
+
+        if(hitPoints <= 0){
+            taken = true;
+        }
+    }
 }
@@ -4,9 +4,18 @@ import java.math.BigDecimal;
 
 public class Chest {
 
-    private BigDecimal money = BigDecimal.valueOf(50);
+    private Long id;
+    private long money = Gold.of(50);
     private Integer percentageChanceToSpawnGuardian = Integer.valueOf(10);
 
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     public Integer getPercentageChanceToSpawnGuardian() {
         return percentageChanceToSpawnGuardian;
     }
@@ -16,10 +25,18 @@ public class Chest {
     }
 
     public BigDecimal getMoney() {
-        return money;
+        return Gold.toBigDecimal(money);
     }
 
     public void setMoney(BigDecimal money) {
+        this.money = Gold.toMinorUnits(money);
+    }
+
+    public long getMoneyMinorUnits() {
+        return money;
+    }
+
+    public void setMoneyMinorUnits(long money) {
         this.money = money;
     }
 
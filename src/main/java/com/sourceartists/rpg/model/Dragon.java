@@ -2,4 +2,13 @@ package com.sourceartists.rpg.model;
 
 public class Dragon {
 
+    private final DragonHoard hoard = new DragonHoard();
+
+    public DragonHoard getHoard() {
+        return hoard;
+    }
+
+    public DragonType getDragonType() {
+        return DragonType.NORMAL;
+    }
 }
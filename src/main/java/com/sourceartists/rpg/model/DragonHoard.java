@@ -0,0 +1,127 @@
+package com.sourceartists.rpg.model;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+/**
+ * Gold and treasures a dragon sits on. Keeps a running count per {@link TreasureType} and the
+ * running worth of all treasures, so totals are read in O(1) and a bulk add or remove costs
+ * one pass over the treasures moved. Safe for concurrent use; a bulk change is atomic.
+ */
+public class DragonHoard {
+
+    private static final TreasureType[] TREASURE_TYPES = TreasureType.values();
+
+    private final long[] counts = new long[TREASURE_TYPES.length];
+    private long treasureWorth;
+    private long gold;
+
+    public synchronized long getCount(TreasureType treasureType) {
+        return counts[treasureType.ordinal()];
+    }
+
+    /**
+     * @return worth of all treasures in minor units, see {@link Gold}
+     */
+    public synchronized long getTreasureWorthMinorUnits() {
+        return treasureWorth;
+    }
+
+    public synchronized long getGoldMinorUnits() {
+        return gold;
+    }
+
+    public synchronized long getTotalWorthMinorUnits() {
+        return treasureWorth + gold;
+    }
+
+    public BigDecimal getTotalWorth() {
+        return Gold.toBigDecimal(getTotalWorthMinorUnits());
+    }
+
+    public synchronized void add(TreasureType treasureType, long count) {
+        if(count < 0){
+            throw new IllegalArgumentException("Cannot add a negative number of treasures: " + count);
+        }
+
+        counts[treasureType.ordinal()] += count;
+        treasureWorth += count * treasureType.getWorthMinorUnits();
+    }
+
+    public void addAll(Collection<Treasure> treasures) {
+        long[] added = tally(treasures);
+
+        synchronized(this){
+            for(TreasureType treasureType: TREASURE_TYPES){
+                add(treasureType, added[treasureType.ordinal()]);
+            }
+        }
+    }
+
+    /**
+     * @return false, leaving the hoard as it was, if there are fewer than {@code count} such treasures
+     */
+    public synchronized boolean remove(TreasureType treasureType, long count) {
+        if(count < 0){
+            throw new IllegalArgumentException("Cannot remove a negative number of treasures: " + count);
+        }
+
+        if(counts[treasureType.ordinal()] < count){
+            return false;
+        }
+
+        counts[treasureType.ordinal()] -= count;
+        treasureWorth -= count * treasureType.getWorthMinorUnits();
+
+        return true;
+    }
+
+    /**
+     * @return false, leaving the hoard as it was, unless every one of the treasures is in it
+     */
+    public boolean removeAll(Collection<Treasure> treasures) {
+        long[] removed = tally(treasures);
+
+        synchronized(this){
+            for(TreasureType treasureType: TREASURE_TYPES){
+                if(counts[treasureType.ordinal()] < removed[treasureType.ordinal()]){
+                    return false;
+                }
+            }
+
+            for(TreasureType treasureType: TREASURE_TYPES){
+                remove(treasureType, removed[treasureType.ordinal()]);
+            }
+        }
+
+        return true;
+    }
+
+    public synchronized void addGold(long minorUnits) {
+        if(minorUnits < 0){
+            throw new IllegalArgumentException("Cannot add negative gold: " + minorUnits);
+        }
+
+        gold += minorUnits;
+    }
+
+    /**
+     * @return gold taken in minor units; never more than the hoard holds
+     */
+    public synchronized long takeGold(long minorUnits) {
+        long taken = Math.max(0, Math.min(minorUnits, gold));
+        gold -= taken;
+
+        return taken;
+    }
+
+    private static long[] tally(Collection<Treasure> treasures) {
+        long[] tally = new long[TREASURE_TYPES.length];
+
+        for(Treasure treasure: treasures){
+            tally[treasure.getTreasureType().ordinal()]++;
+        }
+
+        return tally;
+    }
+}
@@ -3,13 +3,14 @@ package com.sourceartists.rpg.model;
 import com.sourceartists.rpg.exception.HeroOvercomesDeathAndCrushesHisEnemy;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
-public class Enemy {
+public class Enemy implements BuffHolder {
 
     private String name;
     private Integer level;
     private boolean alive = true;
-    private Buff activeBuff;
+    private final AtomicReference<Buff> activeBuff = new AtomicReference<>();
     private List<Power> powers;
     private List<Spell> spells;
 
@@ -37,12 +38,18 @@ public class Enemy {
         this.alive = alive;
     }
 
+    @Override
     public Buff getActiveBuff() {
-        return activeBuff;
+        return activeBuff.get();
     }
 
     public void setActiveBuff(Buff activeBuff) {
-        this.activeBuff = activeBuff;
+        this.activeBuff.set(activeBuff);
+    }
+
+    @Override
+    public boolean compareAndSetActiveBuff(Buff expectedBuff, Buff activeBuff) {
+        return this.activeBuff.compareAndSet(expectedBuff, activeBuff);
     }
 
     public List<Power> getPowers() {
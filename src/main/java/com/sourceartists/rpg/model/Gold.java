@@ -0,0 +1,41 @@
+package com.sourceartists.rpg.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money is kept as a {@code long} count of minor units (hundredths of a gold piece).
+ * BigDecimal only shows up at the API boundary, through these conversions, and always with
+ * {@value #SCALE} decimal places.
+ */
+public final class Gold {
+
+    public static final int SCALE = 2;
+    public static final long MINOR_UNITS_PER_GOLD = 100;
+
+    private Gold() {
+    }
+
+    public static long of(long gold) {
+        return Math.multiplyExact(gold, MINOR_UNITS_PER_GOLD);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the amount has a fraction of a minor unit, rather than round it away
+     */
+    public static long toMinorUnits(BigDecimal gold) {
+        BigDecimal scaled;
+
+        try {
+            scaled = gold.setScale(SCALE, RoundingMode.UNNECESSARY);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Not a whole number of minor units: " + gold, e);
+        }
+
+        return scaled.unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+}
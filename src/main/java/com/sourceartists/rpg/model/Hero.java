@@ -1,34 +1,63 @@
 package com.sourceartists.rpg.model;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.List;
-
-public class Hero {
-
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A hero's stats, gold, alive flag and active buff live in volatile fields updated atomically
+ * through field updaters, so concurrent requests on the same hero never lose updates without
+ * the hero needing a lock or an extra object per attribute.
+ */
+public class Hero implements BuffHolder {
+
+    private static final AtomicIntegerFieldUpdater<Hero> LEVEL =
+            AtomicIntegerFieldUpdater.newUpdater(Hero.class, "level");
+    private static final AtomicIntegerFieldUpdater<Hero> MORALE_LEVEL =
+            AtomicIntegerFieldUpdater.newUpdater(Hero.class, "moraleLevel");
+    private static final AtomicIntegerFieldUpdater<Hero> STRENGTH =
+            AtomicIntegerFieldUpdater.newUpdater(Hero.class, "strength");
+    private static final AtomicIntegerFieldUpdater<Hero> LOCKPICKING_LEVEL =
+            AtomicIntegerFieldUpdater.newUpdater(Hero.class, "lockpickingLevel");
+    private static final AtomicLongFieldUpdater<Hero> GOLD =
+            AtomicLongFieldUpdater.newUpdater(Hero.class, "gold");
+    private static final AtomicReferenceFieldUpdater<Hero, Buff> ACTIVE_BUFF =
+            AtomicReferenceFieldUpdater.newUpdater(Hero.class, Buff.class, "activeBuff");
+    private static final AtomicReferenceFieldUpdater<Hero, LockpickInventory> LOCKPICK_INVENTORY =
+            AtomicReferenceFieldUpdater.newUpdater(Hero.class, LockpickInventory.class, "lockpickInventory");
+
+    private static final int INITIAL_LOCKPICKING_LEVEL = 10;
+    private static final long INITIAL_GOLD = Gold.of(100);
+
+    private volatile int level;
+    private volatile int moraleLevel;
+    private volatile int strength;
+    private volatile int lockpickingLevel = INITIAL_LOCKPICKING_LEVEL;
+    private volatile long gold = INITIAL_GOLD;
+    private volatile boolean alive;
+    private volatile Buff activeBuff;
+
+    private Long id;
     private String name;
-    private Integer level;
-    private Integer moraleLevel;
-    private BigDecimal gold = BigDecimal.valueOf(100);
     private HeroClass heroClass;
-    private Integer strength;
-
-    private Integer lockpickingLevel = Integer.valueOf(10);
-
-    private Buff activeBuff;
     private List<Power> powers;
     private List<Spell> spells;
     private List<Hero> allies;
     private List<Armor> equippedArmor;
-    private List<Lockpick> lockpicks;
+    // created on first use; the only record of the hero's lockpicks
+    private volatile LockpickInventory lockpickInventory;
     private Weapon equippedWeapon;
     private Castle castle;
-    private boolean alive;
+    private long journalSeq;
 
     public Hero() {
     }
 
     public Hero(BigDecimal gold) {
-        this.gold = gold;
+        setGold(gold);
     }
 
     public Integer getStrength() {
@@ -40,7 +69,7 @@ public class Hero {
     }
 
     public Hero(Integer gold) {
-        this.gold = BigDecimal.valueOf(gold);
+        this.gold = Gold.of(gold);
     }
 
     public Integer getLockpickingLevel() {
@@ -52,11 +81,15 @@ public class Hero {
     }
 
     public void increaseLockpicking(){
-        ++lockpickingLevel;
+        LOCKPICKING_LEVEL.incrementAndGet(this);
+    }
+
+    public void increaseLockpicking(int levels){
+        LOCKPICKING_LEVEL.addAndGet(this, levels);
     }
 
     public void decreaseMorale(){
-        --moraleLevel;
+        MORALE_LEVEL.decrementAndGet(this);
     }
 
     public Integer getMoraleLevel() {
@@ -68,21 +101,50 @@ public class Hero {
     }
 
     public void addMoney(BigDecimal money){
-        setGold(this.gold.add(money));
+        addMoney(Gold.toMinorUnits(money));
+    }
+
+    public void addMoney(long minorUnits){
+        GOLD.addAndGet(this, minorUnits);
     }
 
+    /**
+     * @return the hero's lockpicks by id, as the inventory holds them now
+     */
     public List<Lockpick> getLockpicks() {
-        return lockpicks;
+        LockpickInventory inventory = lockpickInventory;
+
+        return inventory != null ? inventory.toList() : Collections.emptyList();
     }
 
     public void setLockpicks(List<Lockpick> lockpicks) {
-        this.lockpicks = lockpicks;
+        this.lockpickInventory = lockpicks == null || lockpicks.isEmpty()
+                ? null : new LockpickInventory(lockpicks);
+    }
+
+    public LockpickInventory getLockpickInventory() {
+        LockpickInventory inventory = lockpickInventory;
+
+        if(inventory == null){
+            LOCKPICK_INVENTORY.compareAndSet(this, null, new LockpickInventory());
+            inventory = lockpickInventory;
+        }
+
+        return inventory;
     }
 
     public Spell mostPowerfullOffensiveSpell(){
         return spells.get(0);
     }
 
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     public String getName() {
         return name;
     }
@@ -99,14 +161,41 @@ public class Hero {
         this.level = level;
     }
 
+    /**
+     * @return the level this call brought the hero to; each level is reached by exactly one caller
+     */
+    public int levelUp() {
+        return LEVEL.incrementAndGet(this);
+    }
+
     public BigDecimal getGold() {
-        return gold;
+        return Gold.toBigDecimal(gold);
     }
 
     public void setGold(BigDecimal gold) {
+        this.gold = Gold.toMinorUnits(gold);
+    }
+
+    public long getGoldMinorUnits() {
+        return gold;
+    }
+
+    public void setGoldMinorUnits(long gold) {
         this.gold = gold;
     }
 
+    /**
+     * @return sequence number of the last journal event applied to the hero; a stored hero
+     * reflects the events up to the one it was saved with
+     */
+    public long getJournalSeq() {
+        return journalSeq;
+    }
+
+    public void setJournalSeq(long journalSeq) {
+        this.journalSeq = journalSeq;
+    }
+
     public HeroClass getHeroClass() {
         return heroClass;
     }
@@ -115,6 +204,7 @@ public class Hero {
         this.heroClass = heroClass;
     }
 
+    @Override
     public Buff getActiveBuff() {
         return activeBuff;
     }
@@ -123,6 +213,11 @@ public class Hero {
         this.activeBuff = activeBuff;
     }
 
+    @Override
+    public boolean compareAndSetActiveBuff(Buff expectedBuff, Buff activeBuff) {
+        return ACTIVE_BUFF.compareAndSet(this, expectedBuff, activeBuff);
+    }
+
     public List<Power> getPowers() {
         return powers;
     }
@@ -171,7 +266,7 @@ public class Hero {
         this.castle = castle;
     }
 
-    public void addSpell(Spell generateSpecialSpell) {
+    public synchronized void addSpell(Spell generateSpecialSpell) {
         this.spells.add(generateSpecialSpell);
     }
 
@@ -192,10 +287,10 @@ public class Hero {
     }
 
     public boolean isAlive() {
-        return false;
+        return alive;
     }
 
-    public void addStrenth(int lowMoraleStrengthGain) {
-
+    public void addStrenth(int strengthGain) {
+        STRENGTH.addAndGet(this, strengthGain);
     }
 }
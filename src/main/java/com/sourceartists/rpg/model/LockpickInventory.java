@@ -0,0 +1,108 @@
+package com.sourceartists.rpg.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Hero's lockpicks partitioned into used and unused, keyed by {@link Lockpick#getId()}.
+ * Ids must be non-negative; mark picks used through {@link #markUsed(Lockpick)} so the
+ * partition stays in sync with {@link Lockpick#isUsed()}. Safe for concurrent use.
+ */
+public class LockpickInventory {
+
+    private Lockpick[] lockpicks = new Lockpick[0];
+    private final BitSet unused = new BitSet();
+    private final BitSet used = new BitSet();
+    private int unusedCount;
+    private int usedCount;
+
+    public LockpickInventory() {
+    }
+
+    public LockpickInventory(Collection<Lockpick> lockpicks) {
+        for(Lockpick lockpick: lockpicks){
+            add(lockpick);
+        }
+    }
+
+    public synchronized void add(Lockpick lockpick) {
+        int id = lockpick.getId();
+
+        if(id < 0){
+            throw new IllegalArgumentException("Lockpick id must not be negative: " + id);
+        }
+
+        if(id >= lockpicks.length){
+            lockpicks = Arrays.copyOf(lockpicks, Math.max(id + 1, lockpicks.length * 2));
+        }
+
+        remove(id);
+        lockpicks[id] = lockpick;
+
+        if(lockpick.isUsed()){
+            used.set(id);
+            usedCount++;
+        }else{
+            unused.set(id);
+            unusedCount++;
+        }
+    }
+
+    public synchronized void markUsed(Lockpick lockpick) {
+        lockpick.setUsed(true);
+        add(lockpick);
+    }
+
+    public synchronized Lockpick get(int id) {
+        return id < lockpicks.length ? lockpicks[id] : null;
+    }
+
+    /**
+     * @return the lowest id at or after {@code fromId} among used or unused picks, or -1 if there is none
+     */
+    public synchronized int nextId(boolean usedLockpicks, int fromId) {
+        return usedLockpicks ? used.nextSetBit(fromId) : unused.nextSetBit(fromId);
+    }
+
+    public synchronized int size() {
+        return unusedCount + usedCount;
+    }
+
+    public synchronized int getUnusedCount() {
+        return unusedCount;
+    }
+
+    public synchronized int getUsedCount() {
+        return usedCount;
+    }
+
+    /**
+     * @return a copy of the lockpicks, ordered by id
+     */
+    public synchronized List<Lockpick> toList() {
+        List<Lockpick> list = new ArrayList<>(unusedCount + usedCount);
+
+        for(Lockpick lockpick: lockpicks){
+            if(lockpick != null){
+                list.add(lockpick);
+            }
+        }
+
+        return list;
+    }
+
+    private void remove(int id) {
+        if(unused.get(id)){
+            unused.clear(id);
+            unusedCount--;
+        }else if(used.get(id)){
+            used.clear(id);
+            usedCount--;
+        }
+
+        lockpicks[id] = null;
+    }
+}
@@ -1,4 +1,9 @@
 package com.sourceartists.rpg.model;
 
 public class MightyDragon extends Dragon{
+
+    @Override
+    public DragonType getDragonType() {
+        return DragonType.MIGHTY;
+    }
 }
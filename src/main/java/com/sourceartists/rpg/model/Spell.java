@@ -1,11 +1,72 @@
 package com.sourceartists.rpg.model;
 
+import java.util.Objects;
+
+/**
+ * Spells are immutable, so one instance can be shared by every hero that knows it.
+ */
 public class Spell {
 
-    private String name;
-    private boolean canBeDeadly;
-    private Integer healingValue;
-    private Integer manaCost;
-    private Integer rechargeTime;
-    private Integer range;
+    private final String name;
+    private final boolean canBeDeadly;
+    private final Integer healingValue;
+    private final Integer manaCost;
+    private final Integer rechargeTime;
+    private final Integer range;
+
+    public Spell() {
+        this(null, false, null, null, null, null);
+    }
+
+    public Spell(String name, boolean canBeDeadly, Integer healingValue, Integer manaCost
+            , Integer rechargeTime, Integer range) {
+        this.name = name;
+        this.canBeDeadly = canBeDeadly;
+        this.healingValue = healingValue;
+        this.manaCost = manaCost;
+        this.rechargeTime = rechargeTime;
+        this.range = range;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean canBeDeadly() {
+        return canBeDeadly;
+    }
+
+    public Integer getHealingValue() {
+        return healingValue;
+    }
+
+    public Integer getManaCost() {
+        return manaCost;
+    }
+
+    public Integer getRechargeTime() {
+        return rechargeTime;
+    }
+
+    public Integer getRange() {
+        return range;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Spell spell = (Spell) o;
+        return canBeDeadly == spell.canBeDeadly &&
+                Objects.equals(name, spell.name) &&
+                Objects.equals(healingValue, spell.healingValue) &&
+                Objects.equals(manaCost, spell.manaCost) &&
+                Objects.equals(rechargeTime, spell.rechargeTime) &&
+                Objects.equals(range, spell.range);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, canBeDeadly, healingValue, manaCost, rechargeTime, range);
+    }
 }
@@ -5,4 +5,8 @@ public class SuperBuff extends Buff{
     public SuperBuff(String name, BuffType buffType){
         super(name, buffType);
     }
+
+    public SuperBuff(BuffDefinition definition){
+        super(definition);
+    }
 }
@@ -0,0 +1,64 @@
+package com.sourceartists.rpg.model;
+
+/**
+ * Reusable buffer for the outcome of a batch of swings resolved in one engine call.
+ * Swings are recorded in order; resolution stops at the first deadly swing.
+ */
+public class SwingBatch {
+
+    private final boolean[] critical;
+    private final boolean[] deadly;
+    private int resolved;
+    private long totalResolved;
+
+    public SwingBatch(int capacity) {
+        if(capacity <= 0){
+            throw new IllegalArgumentException("Swing batch needs room for at least one swing");
+        }
+
+        this.critical = new boolean[capacity];
+        this.deadly = new boolean[capacity];
+    }
+
+    public int capacity() {
+        return critical.length;
+    }
+
+    public void reset() {
+        resolved = 0;
+    }
+
+    public void record(boolean criticalHit, boolean deadlyHit) {
+        critical[resolved] = criticalHit;
+        deadly[resolved] = deadlyHit;
+        resolved++;
+        totalResolved++;
+    }
+
+    public boolean isFull() {
+        return resolved == critical.length;
+    }
+
+    public int getResolved() {
+        return resolved;
+    }
+
+    /**
+     * @return swings recorded since the batch was created, across resets
+     */
+    public long getTotalResolved() {
+        return totalResolved;
+    }
+
+    public boolean isCritical(int swing) {
+        return critical[swing];
+    }
+
+    public boolean isDeadly(int swing) {
+        return deadly[swing];
+    }
+
+    public boolean isDeadly() {
+        return resolved > 0 && deadly[resolved - 1];
+    }
+}
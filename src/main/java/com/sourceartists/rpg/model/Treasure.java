@@ -2,17 +2,28 @@ package com.sourceartists.rpg.model;
 
 public class Treasure {
 
-    private TreasureType treasureType;
+    private static final Treasure[] TREASURES = new Treasure[TreasureType.values().length];
+
+    static {
+        for(TreasureType treasureType: TreasureType.values()){
+            TREASURES[treasureType.ordinal()] = new Treasure(treasureType);
+        }
+    }
+
+    private final TreasureType treasureType;
 
     public Treasure(TreasureType treasureType) {
         this.treasureType = treasureType;
     }
 
-    public TreasureType getTreasureType() {
-        return treasureType;
+    /**
+     * @return the shared treasure of the given type; treasures carry no state of their own
+     */
+    public static Treasure of(TreasureType treasureType) {
+        return TREASURES[treasureType.ordinal()];
     }
 
-    public void setTreasureType(TreasureType treasureType) {
-        this.treasureType = treasureType;
+    public TreasureType getTreasureType() {
+        return treasureType;
     }
 }
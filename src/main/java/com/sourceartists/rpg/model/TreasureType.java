@@ -4,17 +4,21 @@ import java.math.BigDecimal;
 
 public enum TreasureType {
 
-    EMERALD(BigDecimal.valueOf(1000)),
-    RUBY(BigDecimal.valueOf(500)),
-    DIAMOND(BigDecimal.valueOf(2500));
+    EMERALD(1000),
+    RUBY(500),
+    DIAMOND(2500);
 
-    private BigDecimal worth;
+    private final long worth;
 
-    TreasureType(BigDecimal worth) {
-        this.worth = worth;
+    TreasureType(long worth) {
+        this.worth = Gold.of(worth);
     }
 
     public BigDecimal getWorth() {
+        return Gold.toBigDecimal(worth);
+    }
+
+    public long getWorthMinorUnits() {
         return worth;
     }
 }
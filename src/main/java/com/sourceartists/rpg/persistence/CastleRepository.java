@@ -0,0 +1,71 @@
+package com.sourceartists.rpg.persistence;
+
+import com.sourceartists.rpg.model.Castle;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Castles in H2, read by id in one query and written in one JDBC batch.
+ */
+@Repository
+public class CastleRepository {
+
+    private static final String SELECT_CASTLES =
+            "SELECT id, taken, hit_points FROM castle WHERE id IN (:ids)";
+    private static final String MERGE_CASTLE =
+            "MERGE INTO castle (id, taken, hit_points) KEY (id) VALUES (:id, :taken, :hitPoints)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public CastleRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<Castle> findById(long id) {
+        return Optional.ofNullable(findAllById(Collections.singleton(id)).get(id));
+    }
+
+    /**
+     * @return the castles found, by id; ids that are not stored are left out
+     */
+    public Map<Long, Castle> findAllById(Collection<Long> ids) {
+        Map<Long, Castle> found = new HashMap<>(ids.size() * 2);
+
+        if(ids.isEmpty()){
+            return found;
+        }
+
+        jdbcTemplate.query(SELECT_CASTLES, new MapSqlParameterSource("ids", ids), rs -> {
+            Castle castle = new Castle();
+            castle.setId(rs.getLong("id"));
+            castle.setTaken(rs.getBoolean("taken"));
+            castle.setHitPoints(rs.getLong("hit_points"));
+            found.put(castle.getId(), castle);
+        });
+
+        return found;
+    }
+
+    @Transactional
+    public void saveAll(Collection<Castle> castles) {
+        List<SqlParameterSource> rows = new ArrayList<>(castles.size());
+
+        for(Castle castle: castles){
+            if(castle.getId() == null){
+                throw new IllegalArgumentException("Castle needs an id to be saved");
+            }
+
+            rows.add(new MapSqlParameterSource()
+                    .addValue("id", castle.getId())
+                    .addValue("taken", castle.isTaken())
+                    .addValue("hitPoints", castle.getHitPoints()));
+        }
+
+        jdbcTemplate.batchUpdate(MERGE_CASTLE, rows.toArray(new SqlParameterSource[0]));
+    }
+}
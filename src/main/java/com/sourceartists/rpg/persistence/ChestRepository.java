@@ -0,0 +1,71 @@
+package com.sourceartists.rpg.persistence;
+
+import com.sourceartists.rpg.model.Chest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Loot chests in H2, read by id in one query and written in one JDBC batch.
+ */
+@Repository
+public class ChestRepository {
+
+    private static final String SELECT_CHESTS =
+            "SELECT id, money, guardian_chance FROM chest WHERE id IN (:ids)";
+    private static final String MERGE_CHEST =
+            "MERGE INTO chest (id, money, guardian_chance) KEY (id) VALUES (:id, :money, :guardianChance)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ChestRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<Chest> findById(long id) {
+        return Optional.ofNullable(findAllById(Collections.singleton(id)).get(id));
+    }
+
+    /**
+     * @return the chests found, by id; ids that are not stored are left out
+     */
+    public Map<Long, Chest> findAllById(Collection<Long> ids) {
+        Map<Long, Chest> found = new HashMap<>(ids.size() * 2);
+
+        if(ids.isEmpty()){
+            return found;
+        }
+
+        jdbcTemplate.query(SELECT_CHESTS, new MapSqlParameterSource("ids", ids), rs -> {
+            Chest chest = new Chest();
+            chest.setId(rs.getLong("id"));
+            chest.setMoneyMinorUnits(rs.getLong("money"));
+            chest.setPercentageChanceToSpawnGuardian(rs.getInt("guardian_chance"));
+            found.put(chest.getId(), chest);
+        });
+
+        return found;
+    }
+
+    @Transactional
+    public void saveAll(Collection<Chest> chests) {
+        List<SqlParameterSource> rows = new ArrayList<>(chests.size());
+
+        for(Chest chest: chests){
+            if(chest.getId() == null){
+                throw new IllegalArgumentException("Chest needs an id to be saved");
+            }
+
+            rows.add(new MapSqlParameterSource()
+                    .addValue("id", chest.getId())
+                    .addValue("money", chest.getMoneyMinorUnits())
+                    .addValue("guardianChance", chest.getPercentageChanceToSpawnGuardian()));
+        }
+
+        jdbcTemplate.batchUpdate(MERGE_CHEST, rows.toArray(new SqlParameterSource[0]));
+    }
+}
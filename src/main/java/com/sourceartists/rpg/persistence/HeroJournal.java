@@ -0,0 +1,455 @@
+package com.sourceartists.rpg.persistence;
+
+import com.sourceartists.rpg.model.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Append-only journal of hero mutations with group commit. Appends copy their record into an
+ * in-memory ring; a single flusher thread writes every record that is ready and forces them to disk
+ * with one fsync, then wakes everybody waiting in {@link #awaitDurable(long)} for any of them.
+ * <p>
+ * Sequence numbers come from an atomic counter and are record positions in the file, so they keep
+ * growing across restarts. A record goes into the ring slot of its sequence number, and the flusher
+ * only writes the contiguous run after the last durable one, so the file is always in sequence
+ * order. Events of one hero are appended under that hero's lock stripe, so their order in the file
+ * is the order their mutations were applied in; the journal monitor only guards the ring.
+ * The header holds the checkpoint: every event up to it is already reflected in the hero store, and
+ * {@link #recover} starts replaying after it.
+ * <pre>
+ * header (8 bytes): checkpoint sequence number long
+ * record (17 bytes): event type byte, hero id long, value long
+ * </pre>
+ */
+@Component
+public class HeroJournal implements Closeable {
+
+    public enum EventType {
+
+        // value: levels gained
+        LEVEL_UP,
+        // value: gold gained in minor units
+        ADD_MONEY,
+        // value: see buffValue(Buff, long)
+        SET_BUFF,
+        // value: lockpicking levels gained
+        INCREASE_LOCKPICKING,
+        // value: none; fills the sequence number of an append whose mutation failed
+        ABORTED,
+        // value: that of the SET_BUFF whose buff expired
+        CLEAR_BUFF
+    }
+
+    public static final int HEADER_SIZE = 8;
+    public static final int RECORD_SIZE = 17;
+    public static final int DEFAULT_BATCH_SIZE = 64 * 1024;
+
+    private static final int LOCK_STRIPES = 64;
+    private static final EventType[] EVENT_TYPES = EventType.values();
+    private static final String RESTORED_BUFF = "restored buff";
+
+    private final FileChannel channel;
+    private final Object[] stripes = new Object[LOCK_STRIPES];
+    private final AtomicLong appendedSeq;
+    private final ByteBuffer ring;
+    private final ByteBuffer flushing;
+    private final int ringRecords;
+    private final BitSet filled;
+    private long durableSeq;
+    private IOException failure;
+    private boolean closed;
+    private boolean drained;
+    private final Thread flusher;
+
+    @Autowired
+    public HeroJournal(@Value("${rpg.journal.path:hero-journal.log}") String path) throws IOException {
+        this(Paths.get(path), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param batchSize bytes of records that can be waiting for the disk at once
+     */
+    public HeroJournal(Path path, int batchSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE
+                , StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if(channel.size() < HEADER_SIZE){
+            writeCheckpoint(0);
+        }
+
+        for(int stripe = 0; stripe < LOCK_STRIPES; stripe++){
+            stripes[stripe] = new Object();
+        }
+
+        this.durableSeq = recordCount();
+        this.appendedSeq = new AtomicLong(durableSeq);
+        this.ringRecords = batchSize / RECORD_SIZE;
+        this.ring = ByteBuffer.allocateDirect(ringRecords * RECORD_SIZE);
+        this.flushing = ring.duplicate();
+        this.filled = new BitSet(ringRecords);
+        this.flusher = new Thread(this::flushLoop, "hero-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * @return sequence number of the event, to hand to {@link #awaitDurable(long)}
+     */
+    public long append(EventType type, long heroId, long value) {
+        return append(type, heroId, value, null);
+    }
+
+    /**
+     * Applies the mutation and appends its event in one step under the hero's lock stripe, so
+     * {@link #snapshot(long, Runnable)} sees either both or neither. Increments must go through
+     * here, or recovery could count them twice. The mutation is handed the sequence number the
+     * event gets and runs outside the journal monitor, so appends for other heroes go on meanwhile.
+     *
+     * @return sequence number of the event, to hand to {@link #awaitDurable(long)}
+     */
+    public long append(EventType type, long heroId, long value, LongConsumer mutation) {
+        checkOpen();
+
+        synchronized (stripe(heroId)) {
+            long seq = appendedSeq.incrementAndGet();
+
+            if(mutation != null){
+                try {
+                    mutation.accept(seq);
+                } catch (RuntimeException | Error e) {
+                    // The sequence number is taken; the flusher must not wait for it forever.
+                    put(seq, EventType.ABORTED, heroId, 0);
+                    throw e;
+                }
+            }
+
+            put(seq, type, heroId, value);
+
+            return seq;
+        }
+    }
+
+    /**
+     * Runs the read while no journaled mutation of the hero can happen; the hero's
+     * {@link Hero#getJournalSeq()} then tells the last event the read reflects.
+     */
+    public void snapshot(long heroId, Runnable read) {
+        synchronized (stripe(heroId)) {
+            read.run();
+        }
+    }
+
+    /**
+     * Blocks until the event with the given sequence number, and every event before it, is on disk.
+     */
+    public synchronized void awaitDurable(long seq) {
+        while(durableSeq < seq){
+            if(failure != null){
+                throw new UncheckedIOException("Hero journal could not be written", failure);
+            }
+
+            if(drained){
+                throw new IllegalStateException("Hero journal is closed");
+            }
+
+            awaitSignal();
+        }
+    }
+
+    /**
+     * Replays the events after the checkpoint onto the heroes found by id, and moves each hero's
+     * {@link Hero#getJournalSeq()} along. Events of heroes the lookup does not know, and events at
+     * or before the sequence number a hero's stored state already reflects, are skipped. Move the
+     * checkpoint once the heroes are stored again.
+     * <p>
+     * A restored buff is dropped if its expiry has passed; otherwise it gets the time it has left
+     * and is handed to {@code restoredBuffs} with its event value, to be scheduled for expiry.
+     *
+     * @return sequence number of the last event in the journal
+     */
+    public synchronized long recover(LongFunction<Hero> heroesById, ToLongFunction<Hero> reflectedSeq
+            , ObjLongConsumer<Hero> restoredBuffs) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        Map<Hero, Long> buffValues = new IdentityHashMap<>();
+
+        for(long seq = readCheckpoint() + 1; seq <= durableSeq; seq++){
+            record.clear();
+
+            while(record.hasRemaining()){
+                channel.read(record, HEADER_SIZE + (seq - 1) * RECORD_SIZE + record.position());
+            }
+
+            record.flip();
+            EventType type = EVENT_TYPES[record.get()];
+            long heroId = record.getLong();
+            long value = record.getLong();
+
+            if(type == EventType.ABORTED){
+                continue;
+            }
+
+            Hero hero = heroesById.apply(heroId);
+
+            if(hero == null || seq <= reflectedSeq.applyAsLong(hero)){
+                continue;
+            }
+
+            if(type == EventType.SET_BUFF){
+                buffValues.put(hero, value);
+            }else if(type == EventType.CLEAR_BUFF){
+                // The buff may have expired before its SET_BUFF got its sequence number.
+                if(!Objects.equals(buffValues.get(hero), value)){
+                    hero.setJournalSeq(seq);
+                    continue;
+                }
+
+                buffValues.remove(hero);
+            }
+
+            apply(hero, type, value);
+            hero.setJournalSeq(seq);
+        }
+
+        long nowSeconds = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+
+        for(Map.Entry<Hero, Long> restored: buffValues.entrySet()){
+            Hero hero = restored.getKey();
+            long timeLeft = (restored.getValue() >>> 8) - nowSeconds;
+
+            if(timeLeft <= 0){
+                hero.setActiveBuff(null);
+            }else{
+                hero.getActiveBuff().setTimeLeft((int) timeLeft);
+                restoredBuffs.accept(hero, restored.getValue());
+            }
+        }
+
+        return durableSeq;
+    }
+
+    /**
+     * Records that every event up to the given sequence number is reflected in the hero store.
+     */
+    public synchronized void checkpoint(long seq) throws IOException {
+        writeCheckpoint(seq);
+    }
+
+    public synchronized long getCheckpoint() throws IOException {
+        return readCheckpoint();
+    }
+
+    /**
+     * @return SET_BUFF value of the buff applied at the given time: the epoch second it expires at,
+     * shifted left by 8 bits, plus its type ordinal * 2, plus one for a superbuff
+     */
+    public static long buffValue(Buff buff, long appliedAtMillis) {
+        long expiresAt = TimeUnit.MILLISECONDS.toSeconds(appliedAtMillis) + buff.getTimeLeft();
+
+        return expiresAt << 8 | buff.getBuffType().ordinal() << 1 | (buff instanceof SuperBuff ? 1 : 0);
+    }
+
+    private static void apply(Hero hero, EventType type, long value) {
+        switch(type){
+            case LEVEL_UP:
+                hero.setLevel(hero.getLevel() + (int) value);
+                break;
+            case ADD_MONEY:
+                hero.addMoney(value);
+                break;
+            case SET_BUFF:
+                BuffDefinition definition = BuffDefinition.of(RESTORED_BUFF
+                        , BuffType.values()[(int) ((value & 0xFF) >>> 1)]);
+                hero.setActiveBuff((value & 1) == 1 ? new SuperBuff(definition) : new Buff(definition));
+                break;
+            case CLEAR_BUFF:
+                hero.setActiveBuff(null);
+                break;
+            case INCREASE_LOCKPICKING:
+                hero.increaseLockpicking((int) value);
+                break;
+            case ABORTED:
+                break;
+        }
+    }
+
+    /**
+     * Copies the record into the ring slot of its sequence number, waiting while the slot still
+     * holds a record that is not on disk yet.
+     */
+    private synchronized void put(long seq, EventType type, long heroId, long value) {
+        while(seq > durableSeq + ringRecords && !drained){
+            awaitSignal();
+        }
+
+        checkOpen();
+
+        int slot = (int) ((seq - 1) % ringRecords);
+        int offset = slot * RECORD_SIZE;
+        ring.put(offset, (byte) type.ordinal());
+        ring.putLong(offset + 1, heroId);
+        ring.putLong(offset + 9, value);
+        filled.set(slot);
+
+        // The flusher parks once it has written everything up to durableSeq.
+        if(seq == durableSeq + 1){
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    private void flushLoop() {
+        while(true){
+            long fromSeq;
+            long toSeq;
+
+            synchronized (this) {
+                fromSeq = durableSeq + 1;
+                toSeq = durableSeq;
+
+                while(toSeq < durableSeq + ringRecords && filled.get((int) (toSeq % ringRecords))){
+                    toSeq++;
+                }
+
+                if(toSeq == durableSeq && closed){
+                    drained = true;
+                    notifyAll();
+                    return;
+                }
+            }
+
+            if(toSeq < fromSeq){
+                // The append of the record after durableSeq unparks the flusher.
+                LockSupport.park(this);
+                continue;
+            }
+
+            try {
+                write(fromSeq, toSeq);
+                channel.force(false);
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e;
+                    closed = true;
+                    drained = true;
+                    notifyAll();
+                }
+
+                return;
+            }
+
+            synchronized (this) {
+                for(long seq = fromSeq; seq <= toSeq; seq++){
+                    filled.clear((int) ((seq - 1) % ringRecords));
+                }
+
+                durableSeq = toSeq;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Writes the ring slots of the sequence numbers to their place in the file, in two writes
+     * if they wrap around the end of the ring.
+     */
+    private void write(long fromSeq, long toSeq) throws IOException {
+        long seq = fromSeq;
+
+        while(seq <= toSeq){
+            int slot = (int) ((seq - 1) % ringRecords);
+            int records = (int) Math.min(toSeq - seq + 1, ringRecords - slot);
+            flushing.limit((slot + records) * RECORD_SIZE).position(slot * RECORD_SIZE);
+            long position = HEADER_SIZE + (seq - 1) * RECORD_SIZE;
+
+            while(flushing.hasRemaining()){
+                position += channel.write(flushing, position);
+            }
+
+            seq += records;
+        }
+    }
+
+    @PreDestroy
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+
+        LockSupport.unpark(flusher);
+
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        channel.close();
+    }
+
+    private Object stripe(long heroId) {
+        return stripes[(int) (heroId & (LOCK_STRIPES - 1))];
+    }
+
+    private long recordCount() throws IOException {
+        return (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    private long readCheckpoint() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+        while(header.hasRemaining()){
+            channel.read(header, header.position());
+        }
+
+        return header.getLong(0);
+    }
+
+    private void writeCheckpoint(long seq) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putLong(0, seq);
+
+        while(header.hasRemaining()){
+            channel.write(header, header.position());
+        }
+
+        channel.force(false);
+    }
+
+    private void checkOpen() {
+        if(closed){
+            throw new IllegalStateException("Hero journal is closed");
+        }
+    }
+
+    private void awaitSignal() {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the hero journal", e);
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package com.sourceartists.rpg.persistence;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.sourceartists.rpg.engine.BuffExpiryWheel;
+import com.sourceartists.rpg.model.Hero;
+import com.sourceartists.rpg.model.HeroClass;
+import com.sourceartists.rpg.model.Lockpick;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Heroes with their lockpicks and allies in H2. A batch of heroes is read with three queries
+ * (heroes, lockpicks, allies) per {@value #MAX_IN_LIST_SIZE} heroes, and written with one JDBC
+ * batch per table.
+ * Loaded heroes are kept in a read-through cache, so hot heroes are shared by every request
+ * instead of being read again; allies come back as shallow heroes without lockpicks or allies.
+ * A hero evicted from the cache stays findable for as long as anybody still holds it, so a
+ * request never loads a second instance of a hero another request is still changing.
+ * Every stored hero carries the {@link HeroJournal} sequence number its state reflects, so the
+ * journal replayed at startup never counts an event twice. Saves are mirrored into the
+ * {@link HeroStateFile}, and a hero whose record there is newer is loaded with the record's stats.
+ */
+@Repository
+public class HeroRepository {
+
+    public static final int CACHE_SIZE = 10_000;
+    public static final int RECOVERY_BATCH_SIZE = 1_000;
+
+    // Id lists are padded up to one of these sizes, so each statement only ever has a few shapes.
+    private static final int[] IN_LIST_SIZES = {1, 8, 64, 512};
+    private static final int MAX_IN_LIST_SIZE = IN_LIST_SIZES[IN_LIST_SIZES.length - 1];
+
+    private static final String SELECT_HEROES =
+            "SELECT id, name, hero_class, level, morale_level, strength, lockpicking_level, gold, alive"
+            + ", journal_seq FROM hero WHERE id IN (:ids)";
+    private static final String SELECT_LOCKPICKS =
+            "SELECT hero_id, id, used FROM lockpick WHERE hero_id IN (:ids) ORDER BY hero_id, id";
+    private static final String SELECT_ALLIES =
+            "SELECT a.hero_id AS owner_id, h.id, h.name, h.hero_class, h.level, h.morale_level"
+            + ", h.strength, h.lockpicking_level, h.gold, h.alive, h.journal_seq"
+            + " FROM hero_ally a JOIN hero h ON h.id = a.ally_id WHERE a.hero_id IN (:ids)"
+            + " ORDER BY a.hero_id, h.id";
+    private static final String MERGE_HERO =
+            "MERGE INTO hero (id, name, hero_class, level, morale_level, strength, lockpicking_level"
+            + ", gold, alive, journal_seq) KEY (id) VALUES (:id, :name, :heroClass, :level, :moraleLevel"
+            + ", :strength, :lockpickingLevel, :gold, :alive, :journalSeq)";
+    private static final String DELETE_LOCKPICKS = "DELETE FROM lockpick WHERE hero_id IN (:ids)";
+    private static final String INSERT_LOCKPICK =
+            "INSERT INTO lockpick (hero_id, id, used) VALUES (:heroId, :id, :used)";
+    private static final String DELETE_ALLIES = "DELETE FROM hero_ally WHERE hero_id IN (:ids)";
+    private static final String INSERT_ALLY =
+            "INSERT INTO hero_ally (hero_id, ally_id) VALUES (:heroId, :allyId)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final HeroJournal heroJournal;
+    private final HeroStateFile heroStateFile;
+    private final BuffExpiryWheel buffExpiryWheel;
+    private final Cache<Long, Hero> heroes = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_SIZE)
+            .build();
+    // Every hero handed out, until it is no longer reachable from anywhere else.
+    private final Cache<Long, Hero> liveHeroes = CacheBuilder.newBuilder()
+            .weakValues()
+            .build();
+
+    public HeroRepository(NamedParameterJdbcTemplate jdbcTemplate, HeroJournal heroJournal
+            , HeroStateFile heroStateFile, BuffExpiryWheel buffExpiryWheel) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.heroJournal = heroJournal;
+        this.heroStateFile = heroStateFile;
+        this.buffExpiryWheel = buffExpiryWheel;
+    }
+
+    /**
+     * Replays the journal onto the stored heroes before any request comes in, stores them again
+     * and moves the journal checkpoint past every replayed event. Restored buffs are scheduled to
+     * expire in the time they had left. A hero that is not stored is seeded from its
+     * {@link HeroStateFile} record; if it has none either, recovery fails rather than move the
+     * checkpoint past its events.
+     */
+    @PostConstruct
+    public void recover() throws IOException {
+        Map<Long, Hero> recovered = new HashMap<>();
+        long recoveredSeq = heroJournal.recover(id -> recovered.computeIfAbsent(id, this::findOrSeed)
+                , Hero::getJournalSeq, this::scheduleExpiry);
+
+        List<Hero> toSave = new ArrayList<>(recovered.values());
+        for(int from = 0; from < toSave.size(); from += RECOVERY_BATCH_SIZE){
+            saveAll(toSave.subList(from, Math.min(toSave.size(), from + RECOVERY_BATCH_SIZE)));
+        }
+
+        heroJournal.checkpoint(recoveredSeq);
+    }
+
+    private Hero findOrSeed(long id) {
+        Optional<Hero> stored = findById(id);
+
+        if(stored.isPresent()){
+            return stored.get();
+        }
+
+        int row = heroStateFile.find(id);
+
+        if(row < 0){
+            throw new IllegalStateException("Hero journal has events of hero " + id
+                    + ", which is neither stored nor in the hero state file");
+        }
+
+        Hero hero = new Hero();
+        hero.setId(id);
+        heroStateFile.readInto(row, hero);
+        hero.setSpells(new ArrayList<>());
+        hero.setAllies(new ArrayList<>());
+        hero.setLockpicks(new ArrayList<>());
+
+        return hero;
+    }
+
+    /**
+     * Schedules a restored buff to expire, journaling and mirroring its expiry like a buff the
+     * game applied.
+     */
+    private void scheduleExpiry(Hero hero, long buffValue) {
+        buffExpiryWheel.schedule(hero, hero.getActiveBuff(), expired -> heroJournal.append(
+                HeroJournal.EventType.CLEAR_BUFF, hero.getId(), buffValue, seq -> {
+                    hero.setJournalSeq(seq);
+                    heroStateFile.update(hero, HeroJournal.EventType.CLEAR_BUFF, buffValue, seq);
+                }));
+    }
+
+    public Optional<Hero> findById(long id) {
+        Hero hero = cached(id);
+
+        if(hero != null){
+            return Optional.of(hero);
+        }
+
+        return Optional.ofNullable(findAllById(Collections.singleton(id)).get(id));
+    }
+
+    /**
+     * @return the heroes found, by id; ids that are not stored are left out
+     */
+    public Map<Long, Hero> findAllById(Collection<Long> ids) {
+        Map<Long, Hero> found = new HashMap<>(ids.size() * 2);
+        Set<Long> missing = new HashSet<>();
+
+        for(Long id: ids){
+            Hero hero = cached(id);
+
+            if(hero != null){
+                found.put(id, hero);
+            }else{
+                missing.add(id);
+            }
+        }
+
+        if(!missing.isEmpty()){
+            found.putAll(load(missing));
+        }
+
+        return found;
+    }
+
+    private Hero cached(long id) {
+        Hero hero = heroes.getIfPresent(id);
+
+        if(hero == null){
+            hero = liveHeroes.getIfPresent(id);
+
+            if(hero != null){
+                heroes.put(id, hero);
+            }
+        }
+
+        return hero;
+    }
+
+    private Map<Long, Hero> load(Set<Long> ids) {
+        Map<Long, Hero> found = new HashMap<>(ids.size() * 2);
+
+        for(MapSqlParameterSource params: idParams(ids)){
+            found.putAll(loadChunk(params));
+        }
+
+        return found;
+    }
+
+    private Map<Long, Hero> loadChunk(MapSqlParameterSource params) {
+        Map<Long, Hero> loaded = new HashMap<>(MAX_IN_LIST_SIZE * 2);
+
+        jdbcTemplate.query(SELECT_HEROES, params, rs -> {
+            Hero hero = mapHero(rs);
+            int row = heroStateFile.find(hero.getId());
+
+            if(row >= 0 && heroStateFile.getJournalSeq(row) > hero.getJournalSeq()){
+                heroStateFile.readInto(row, hero);
+            }
+
+            hero.setSpells(new ArrayList<>());
+            hero.setAllies(new ArrayList<>());
+            loaded.put(hero.getId(), hero);
+        });
+
+        if(loaded.isEmpty()){
+            return loaded;
+        }
+
+        Map<Long, List<Lockpick>> lockpicks = new HashMap<>(loaded.size() * 2);
+        jdbcTemplate.query(SELECT_LOCKPICKS, params, rs -> {
+            Lockpick lockpick = new Lockpick(rs.getInt("id"));
+            lockpick.setUsed(rs.getBoolean("used"));
+            lockpicks.computeIfAbsent(rs.getLong("hero_id"), heroId -> new ArrayList<>()).add(lockpick);
+        });
+
+        jdbcTemplate.query(SELECT_ALLIES, params, rs -> {
+            Hero ally = cached(rs.getLong("id"));
+            loaded.get(rs.getLong("owner_id")).getAllies().add(ally != null ? ally : mapHero(rs));
+        });
+
+        Map<Long, Hero> found = new HashMap<>(loaded.size() * 2);
+        for(Hero hero: loaded.values()){
+            hero.setLockpicks(lockpicks.getOrDefault(hero.getId(), new ArrayList<>()));
+
+            // Two requests may load the same hero at once; both must end up with the same instance.
+            Hero live = liveHeroes.asMap().putIfAbsent(hero.getId(), hero);
+            Hero shared = live != null ? live : hero;
+            heroes.put(hero.getId(), shared);
+            found.put(hero.getId(), shared);
+        }
+
+        return found;
+    }
+
+    /**
+     * Splits the ids into {@code ids} parameters of at most {@value #MAX_IN_LIST_SIZE} ids, each
+     * padded with its last id up to the next of the {@link #IN_LIST_SIZES}; repeating an id in
+     * an IN list does not change what it matches.
+     */
+    private static List<MapSqlParameterSource> idParams(Collection<Long> ids) {
+        List<MapSqlParameterSource> params = new ArrayList<>(ids.size() / MAX_IN_LIST_SIZE + 1);
+        Iterator<Long> remaining = ids.iterator();
+
+        while(remaining.hasNext()){
+            List<Long> chunk = new ArrayList<>(Math.min(ids.size(), MAX_IN_LIST_SIZE));
+
+            while(remaining.hasNext() && chunk.size() < MAX_IN_LIST_SIZE){
+                chunk.add(remaining.next());
+            }
+
+            int size = 0;
+            while(IN_LIST_SIZES[size] < chunk.size()){
+                size++;
+            }
+
+            Long last = chunk.get(chunk.size() - 1);
+            while(chunk.size() < IN_LIST_SIZES[size]){
+                chunk.add(last);
+            }
+
+            params.add(new MapSqlParameterSource("ids", chunk));
+        }
+
+        return params;
+    }
+
+    private static Hero mapHero(ResultSet rs) throws SQLException {
+        Hero hero = new Hero();
+        hero.setId(rs.getLong("id"));
+        hero.setName(rs.getString("name"));
+
+        String heroClass = rs.getString("hero_class");
+        hero.setHeroClass(heroClass != null ? HeroClass.valueOf(heroClass) : null);
+
+        hero.setLevel(rs.getInt("level"));
+        hero.setMoraleLevel(rs.getInt("morale_level"));
+        hero.setStrength(rs.getInt("strength"));
+        hero.setLockpickingLevel(rs.getInt("lockpicking_level"));
+        hero.setGoldMinorUnits(rs.getLong("gold"));
+        hero.setAlive(rs.getBoolean("alive"));
+        hero.setJournalSeq(rs.getLong("journal_seq"));
+
+        return hero;
+    }
+
+    /**
+     * Writes the heroes with their lockpicks and allies, one JDBC batch per table. Allies are
+     * stored as links only; save them on their own to persist their stats. Heroes need an id.
+     * Each hero's state is read while no journaled mutation of it can happen, together with the
+     * journal sequence number it reflects.
+     */
+    @Transactional
+    public void saveAll(Collection<Hero> heroesToSave) {
+        if(heroesToSave.isEmpty()){
+            return;
+        }
+
+        Set<Long> ids = new HashSet<>();
+        List<SqlParameterSource> heroRows = new ArrayList<>(heroesToSave.size());
+        List<SqlParameterSource> lockpickRows = new ArrayList<>();
+        List<SqlParameterSource> allyRows = new ArrayList<>();
+
+        for(Hero hero: heroesToSave){
+            if(hero.getId() == null){
+                throw new IllegalArgumentException("Hero needs an id to be saved");
+            }
+
+            heroJournal.snapshot(hero.getId(), () -> {
+                heroRows.add(new MapSqlParameterSource()
+                        .addValue("id", hero.getId())
+                        .addValue("name", hero.getName())
+                        .addValue("heroClass", hero.getHeroClass() != null ? hero.getHeroClass().name() : null)
+                        .addValue("level", hero.getLevel())
+                        .addValue("moraleLevel", hero.getMoraleLevel())
+                        .addValue("strength", hero.getStrength())
+                        .addValue("lockpickingLevel", hero.getLockpickingLevel())
+                        .addValue("gold", hero.getGoldMinorUnits())
+                        .addValue("alive", hero.isAlive())
+                        .addValue("journalSeq", hero.getJournalSeq()));
+                heroStateFile.write(hero, hero.getJournalSeq());
+            });
+        }
+
+        for(Hero hero: heroesToSave){
+            ids.add(hero.getId());
+
+            for(Lockpick lockpick: hero.getLockpicks()){
+                lockpickRows.add(new MapSqlParameterSource()
+                        .addValue("heroId", hero.getId())
+                        .addValue("id", lockpick.getId())
+                        .addValue("used", lockpick.isUsed()));
+            }
+
+            if(hero.getAllies() != null){
+                for(Hero ally: hero.getAllies()){
+                    allyRows.add(new MapSqlParameterSource()
+                            .addValue("heroId", hero.getId())
+                            .addValue("allyId", ally.getId()));
+                }
+            }
+        }
+
+        List<MapSqlParameterSource> idParams = idParams(ids);
+        jdbcTemplate.batchUpdate(MERGE_HERO, heroRows.toArray(new SqlParameterSource[0]));
+
+        for(MapSqlParameterSource params: idParams){
+            jdbcTemplate.update(DELETE_LOCKPICKS, params);
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_LOCKPICK, lockpickRows.toArray(new SqlParameterSource[0]));
+
+        for(MapSqlParameterSource params: idParams){
+            jdbcTemplate.update(DELETE_ALLIES, params);
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_ALLY, allyRows.toArray(new SqlParameterSource[0]));
+
+        for(Hero hero: heroesToSave){
+            heroes.put(hero.getId(), hero);
+            liveHeroes.put(hero.getId(), hero);
+        }
+    }
+
+    public void evict(long id) {
+        heroes.invalidate(id);
+        liveHeroes.invalidate(id);
+    }
+}
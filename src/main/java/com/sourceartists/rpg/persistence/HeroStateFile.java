@@ -0,0 +1,379 @@
+package com.sourceartists.rpg.persistence;
+
+import com.sourceartists.rpg.model.Hero;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Hero state in fixed-width binary records inside a memory-mapped file. Opening the file maps it,
+ * nothing is deserialised up front: heroes are found through an open-addressing table of record
+ * numbers, reads go straight to the mapping and updates such as {@link #addMoney} and
+ * {@link #levelUp} are applied in place. The file is sized for {@code rpg.hero-state.capacity}
+ * heroes when it is created, {@value #DEFAULT_CAPACITY} unless configured.
+ * <p>
+ * Every record carries the {@link HeroJournal} sequence number its state reflects. Journaled
+ * mutations and saves are mirrored here as they happen, so a hero loaded after a restart takes
+ * its stats from the record when the record is newer than the stored hero.
+ * <pre>
+ * header (32 bytes): magic, version, capacity, size
+ * record (48 bytes): hero id long, journal seq long, gold long (minor units), level int, morale int,
+ *                    strength int, lockpicking int, alive byte, active buff type byte (-1 for none),
+ *                    6 reserved bytes
+ * </pre>
+ */
+@Component
+public class HeroStateFile implements Closeable {
+
+    public static final int RECORD_SIZE = 48;
+    public static final int DEFAULT_CAPACITY = 16_384;
+
+    private static final int MAGIC = 0x52504748;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int SIZE_OFFSET = 12;
+
+    private static final int HERO_ID = 0;
+    private static final int JOURNAL_SEQ = 8;
+    private static final int GOLD = 16;
+    private static final int LEVEL = 24;
+    private static final int MORALE = 28;
+    private static final int STRENGTH = 32;
+    private static final int LOCKPICKING = 36;
+    private static final int ALIVE = 40;
+    private static final int ACTIVE_BUFF_TYPE = 41;
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer records;
+    private final int capacity;
+    private final Object[] stripes = new Object[LOCK_STRIPES];
+    /**
+     * Record number + 1 per slot, 0 for a free slot. At least twice the capacity, so probes stay short.
+     */
+    private final AtomicIntegerArray index;
+    private int size;
+
+    @Autowired
+    public HeroStateFile(@Value("${rpg.hero-state.path:hero-state.dat}") String path
+            , @Value("${rpg.hero-state.capacity:" + DEFAULT_CAPACITY + "}") int capacity) throws IOException {
+        this(FileChannel.open(Paths.get(path), StandardOpenOption.CREATE
+                , StandardOpenOption.READ, StandardOpenOption.WRITE), capacity);
+    }
+
+    private HeroStateFile(FileChannel channel, int capacity) throws IOException {
+        try {
+            boolean created = channel.size() == 0;
+
+            if(!created){
+                capacity = readCapacity(channel);
+            }
+
+            long fileSize = HEADER_SIZE + (long) capacity * RECORD_SIZE;
+
+            if(fileSize > Integer.MAX_VALUE){
+                throw new IllegalArgumentException("Hero file cannot map " + capacity + " heroes");
+            }
+
+            this.records = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+
+            if(created){
+                records.putInt(0, MAGIC);
+                records.putInt(4, VERSION);
+                records.putInt(CAPACITY_OFFSET, capacity);
+                records.putInt(SIZE_OFFSET, 0);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+
+        this.channel = channel;
+        this.capacity = capacity;
+        this.size = records.getInt(SIZE_OFFSET);
+        this.index = new AtomicIntegerArray(Integer.highestOneBit(Math.max(capacity, 1)) << 2);
+
+        for(int stripe = 0; stripe < LOCK_STRIPES; stripe++){
+            stripes[stripe] = new Object();
+        }
+
+        for(int row = 0; row < size; row++){
+            index(records.getLong(offset(row) + HERO_ID), row);
+        }
+    }
+
+    /**
+     * Maps an existing hero file, or creates one with room for {@code capacity} heroes.
+     * An existing file keeps the capacity it was created with.
+     */
+    public static HeroStateFile open(Path path, int capacity) throws IOException {
+        return new HeroStateFile(FileChannel.open(path, StandardOpenOption.CREATE
+                , StandardOpenOption.READ, StandardOpenOption.WRITE), capacity);
+    }
+
+    private static int readCapacity(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+
+        if(fileSize < HEADER_SIZE){
+            throw new IOException("Not a hero state file");
+        }
+
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+
+        if(header.getInt(0) != MAGIC || header.getInt(4) != VERSION){
+            throw new IOException("Not a hero state file");
+        }
+
+        int capacity = header.getInt(CAPACITY_OFFSET);
+        int size = header.getInt(SIZE_OFFSET);
+
+        if(capacity <= 0 || size < 0 || size > capacity
+                || fileSize < HEADER_SIZE + (long) capacity * RECORD_SIZE){
+            throw new IOException("Hero state file is truncated or corrupt");
+        }
+
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the hero's record, or -1 if the hero has none
+     */
+    public int find(long heroId) {
+        int mask = index.length() - 1;
+
+        for(int slot = slot(heroId); ; slot = (slot + 1) & mask){
+            int entry = index.get(slot);
+
+            if(entry == 0){
+                return -1;
+            }
+
+            if(getHeroId(entry - 1) == heroId){
+                return entry - 1;
+            }
+        }
+    }
+
+    /**
+     * @return the hero's record, a fresh one if the hero has none yet, or -1 if the file is full
+     */
+    public synchronized int allocate(long heroId) {
+        int row = find(heroId);
+
+        if(row >= 0 || size == capacity){
+            return row;
+        }
+
+        row = size++;
+        int offset = offset(row);
+
+        for(int field = 0; field < RECORD_SIZE; field += 8){
+            records.putLong(offset + field, 0);
+        }
+        records.putLong(offset + HERO_ID, heroId);
+        records.put(offset + ACTIVE_BUFF_TYPE, (byte) -1);
+        records.putInt(SIZE_OFFSET, size);
+        index(heroId, row);
+
+        return row;
+    }
+
+    public long getHeroId(int row) {
+        return records.getLong(offset(row) + HERO_ID);
+    }
+
+    public long getJournalSeq(int row) {
+        return records.getLong(offset(row) + JOURNAL_SEQ);
+    }
+
+    public int getLevel(int row) {
+        return records.getInt(offset(row) + LEVEL);
+    }
+
+    public int getMoraleLevel(int row) {
+        return records.getInt(offset(row) + MORALE);
+    }
+
+    public int getStrength(int row) {
+        return records.getInt(offset(row) + STRENGTH);
+    }
+
+    public int getLockpickingLevel(int row) {
+        return records.getInt(offset(row) + LOCKPICKING);
+    }
+
+    public long getGold(int row) {
+        return records.getLong(offset(row) + GOLD);
+    }
+
+    public boolean isAlive(int row) {
+        return records.get(offset(row) + ALIVE) != 0;
+    }
+
+    public int getActiveBuffType(int row) {
+        return records.get(offset(row) + ACTIVE_BUFF_TYPE);
+    }
+
+    public int levelUp(int row, int levels, long journalSeq) {
+        int offset = offset(row);
+
+        synchronized (stripe(row)) {
+            int level = records.getInt(offset + LEVEL) + levels;
+            records.putInt(offset + LEVEL, level);
+            records.putLong(offset + JOURNAL_SEQ, journalSeq);
+
+            return level;
+        }
+    }
+
+    public long addMoney(int row, long minorUnits, long journalSeq) {
+        int offset = offset(row);
+
+        synchronized (stripe(row)) {
+            long gold = records.getLong(offset + GOLD) + minorUnits;
+            records.putLong(offset + GOLD, gold);
+            records.putLong(offset + JOURNAL_SEQ, journalSeq);
+
+            return gold;
+        }
+    }
+
+    /**
+     * Mirrors a journaled mutation, already applied to the hero, into its record in place. A hero
+     * without a record gets one with its whole state; heroes that do not fit are left out.
+     */
+    public void update(Hero hero, HeroJournal.EventType type, long value, long journalSeq) {
+        int row = find(hero.getId());
+
+        if(row < 0){
+            write(hero, journalSeq);
+            return;
+        }
+
+        switch(type){
+            case LEVEL_UP:
+                levelUp(row, (int) value, journalSeq);
+                break;
+            case ADD_MONEY:
+                addMoney(row, value, journalSeq);
+                break;
+            default:
+                write(row, hero, journalSeq);
+                break;
+        }
+    }
+
+    /**
+     * Writes the hero's whole state into its record, allocating one if needed.
+     *
+     * @return false if the hero has no record and the file is full
+     */
+    public boolean write(Hero hero, long journalSeq) {
+        int row = allocate(hero.getId());
+
+        if(row < 0){
+            return false;
+        }
+
+        write(row, hero, journalSeq);
+
+        return true;
+    }
+
+    public void write(int row, Hero hero, long journalSeq) {
+        int offset = offset(row);
+
+        synchronized (stripe(row)) {
+            records.putLong(offset + JOURNAL_SEQ, journalSeq);
+            records.putInt(offset + LEVEL, hero.getLevel());
+            records.putInt(offset + MORALE, hero.getMoraleLevel());
+            records.putInt(offset + STRENGTH, hero.getStrength());
+            records.putInt(offset + LOCKPICKING, hero.getLockpickingLevel());
+            records.putLong(offset + GOLD, hero.getGoldMinorUnits());
+            records.put(offset + ALIVE, (byte) (hero.isAlive() ? 1 : 0));
+            records.put(offset + ACTIVE_BUFF_TYPE, (byte) (hero.getActiveBuff() == null
+                    ? -1 : hero.getActiveBuff().getBuffType().ordinal()));
+        }
+    }
+
+    /**
+     * Copies the persisted stats, gold, alive flag and journal sequence number onto the hero.
+     * The buff itself is not persisted, only its type.
+     */
+    public void readInto(int row, Hero hero) {
+        int offset = offset(row);
+
+        synchronized (stripe(row)) {
+            hero.setLevel(records.getInt(offset + LEVEL));
+            hero.setMoraleLevel(records.getInt(offset + MORALE));
+            hero.setStrength(records.getInt(offset + STRENGTH));
+            hero.setLockpickingLevel(records.getInt(offset + LOCKPICKING));
+            hero.setGoldMinorUnits(records.getLong(offset + GOLD));
+            hero.setAlive(records.get(offset + ALIVE) != 0);
+            hero.setJournalSeq(records.getLong(offset + JOURNAL_SEQ));
+        }
+    }
+
+    public void force() {
+        records.force();
+    }
+
+    @PreDestroy
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    /**
+     * Publishes the record after its hero id is written, so {@link #find} can compare ids without locking.
+     */
+    private void index(long heroId, int row) {
+        int mask = index.length() - 1;
+        int slot = slot(heroId);
+
+        while(index.get(slot) != 0){
+            slot = (slot + 1) & mask;
+        }
+
+        index.set(slot, row + 1);
+    }
+
+    private int slot(long heroId) {
+        long hash = heroId * 0x9e3779b97f4a7c15L;
+
+        return (int) (hash ^ (hash >>> 32)) & (index.length() - 1);
+    }
+
+    private int offset(int row) {
+        if(row < 0 || row >= capacity){
+            throw new IndexOutOfBoundsException("No hero record " + row);
+        }
+
+        return HEADER_SIZE + row * RECORD_SIZE;
+    }
+
+    private Object stripe(int row) {
+        return stripes[row & (LOCK_STRIPES - 1)];
+    }
+}
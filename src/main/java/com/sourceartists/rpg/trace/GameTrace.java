@@ -0,0 +1,63 @@
+package com.sourceartists.rpg.trace;
+
+import com.sourceartists.rpg.model.SwingBatch;
+
+/**
+ * Custom Flight Recorder events, for code that has to stay runnable on a Java 8 JVM without
+ * {@code jdk.jfr}. The events live in {@code src/jfr/java}, which is only compiled on JDK 11 and
+ * later; they are looked up once, and when either they or Flight Recorder are missing every
+ * method here does nothing.
+ */
+public final class GameTrace {
+
+    private static final String JFR_TRACER = "com.sourceartists.rpg.trace.JfrTracer";
+
+    private static final Tracer TRACER = loadTracer();
+
+    private GameTrace() {
+    }
+
+    private static Tracer loadTracer() {
+        try {
+            Class.forName("jdk.jfr.Event");
+
+            return (Tracer) Class.forName(JFR_TRACER).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new Tracer() {};
+        }
+    }
+
+    public static void fightStarted(String fight, long fightSeed, long heroId) {
+        TRACER.fightStarted(fight, fightSeed, heroId);
+    }
+
+    public static void buffApplied(long heroId, String buff, String buffType, boolean superBuff) {
+        TRACER.buffApplied(heroId, buff, buffType, superBuff);
+    }
+
+    /**
+     * @return handle for {@link #lockpickAttemptEnded}, or null when nothing is traced
+     */
+    public static Object lockpickAttemptStarted() {
+        return TRACER.lockpickAttemptStarted();
+    }
+
+    /**
+     * @param started handle from {@link #lockpickAttemptStarted()}, or null for an untimed attempt
+     */
+    public static void lockpickAttemptEnded(Object started, long heroId, String lock, boolean usedLockpicks
+            , int attempts, boolean opened) {
+        TRACER.lockpickAttemptEnded(started, heroId, lock, usedLockpicks, attempts, opened);
+    }
+
+    /**
+     * @return handle for {@link #swingsResolved}, or null when nothing is traced
+     */
+    public static Object swingsStarted() {
+        return TRACER.swingsStarted();
+    }
+
+    public static void swingsResolved(Object started, SwingBatch swings) {
+        TRACER.swingsResolved(started, swings);
+    }
+}
@@ -0,0 +1,32 @@
+package com.sourceartists.rpg.trace;
+
+import com.sourceartists.rpg.model.SwingBatch;
+
+/**
+ * What the game hands to a flight recording. Timed events are started with one call, which
+ * returns a handle or null, and ended with another; ending a null handle records an instant event.
+ * Every method does nothing by default, which is what a JVM without Flight Recorder gets.
+ */
+interface Tracer {
+
+    default void fightStarted(String fight, long fightSeed, long heroId) {
+    }
+
+    default void buffApplied(long heroId, String buff, String buffType, boolean superBuff) {
+    }
+
+    default Object lockpickAttemptStarted() {
+        return null;
+    }
+
+    default void lockpickAttemptEnded(Object started, long heroId, String lock, boolean usedLockpicks
+            , int attempts, boolean opened) {
+    }
+
+    default Object swingsStarted() {
+        return null;
+    }
+
+    default void swingsResolved(Object started, SwingBatch swings) {
+    }
+}
@@ -0,0 +1,37 @@
+CREATE TABLE IF NOT EXISTS hero (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(255),
+    hero_class VARCHAR(32),
+    level INT NOT NULL,
+    morale_level INT NOT NULL,
+    strength INT NOT NULL,
+    lockpicking_level INT NOT NULL,
+    gold BIGINT NOT NULL,
+    alive BOOLEAN NOT NULL,
+    journal_seq BIGINT DEFAULT 0 NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS hero_ally (
+    hero_id BIGINT NOT NULL,
+    ally_id BIGINT NOT NULL,
+    PRIMARY KEY (hero_id, ally_id)
+);
+
+CREATE TABLE IF NOT EXISTS lockpick (
+    hero_id BIGINT NOT NULL,
+    id INT NOT NULL,
+    used BOOLEAN NOT NULL,
+    PRIMARY KEY (hero_id, id)
+);
+
+CREATE TABLE IF NOT EXISTS castle (
+    id BIGINT PRIMARY KEY,
+    taken BOOLEAN NOT NULL,
+    hit_points BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS chest (
+    id BIGINT PRIMARY KEY,
+    money BIGINT NOT NULL,
+    guardian_chance INT NOT NULL
+);
@@ -7,11 +7,23 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 
 import com.google.common.collect.Ordering;
+import com.sourceartists.rpg.engine.BuffExpiryWheel;
+import com.sourceartists.rpg.engine.DragonRaidCoordinator;
+import com.sourceartists.rpg.engine.Fight;
+import com.sourceartists.rpg.engine.FightEvent;
+import com.sourceartists.rpg.engine.FightEventBus;
+import com.sourceartists.rpg.engine.FightState;
 import com.sourceartists.rpg.engine.GameEngine;
+import com.sourceartists.rpg.engine.SiegeEngine;
+import com.sourceartists.rpg.engine.StrengthModifierTable;
+import com.sourceartists.rpg.engine.SuperBuffTable;
 import com.sourceartists.rpg.exception.HeroIsAChickenExcpetion;
 import com.sourceartists.rpg.exception.HeroOvercomesDeathAndCrushesHisEnemy;
 import com.sourceartists.rpg.exception.HeroSlainedByDragonException;
+import com.sourceartists.rpg.metrics.GameMetrics;
 import com.sourceartists.rpg.model.*;
+import com.sourceartists.rpg.persistence.HeroJournal;
+import com.sourceartists.rpg.persistence.HeroStateFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -20,6 +32,7 @@ import org.junit.jupiter.params.provider.*;
 import org.mockito.*;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
@@ -33,6 +46,30 @@ class GameControllerTest {
     @Mock
     private GameEngine gameEngineMock;
 
+    @Mock
+    private BuffExpiryWheel buffExpiryWheelMock;
+
+    @Mock
+    private SiegeEngine siegeEngineMock;
+
+    @Mock
+    private HeroJournal heroJournalMock;
+
+    @Mock
+    private HeroStateFile heroStateFileMock;
+
+    @Mock
+    private FightEventBus fightEventBusMock;
+
+    @Mock
+    private GameMetrics gameMetricsMock;
+
+    @Mock
+    private DragonRaidCoordinator dragonRaidCoordinatorMock;
+
+    @Spy
+    private StrengthModifierTable strengthModifiersSpy = StrengthModifierTable.load();
+
     @BeforeEach
     private void init(){
         MockitoAnnotations.initMocks(this);
@@ -54,6 +91,39 @@ class GameControllerTest {
         verify(gameEngineMock, never()).generateSpecialSpell();
     }
 
+    @Test
+    public void shouldLevelUpAllHeroes_withOneEngineCallPerRewardKind() throws Exception{
+        // Arrange
+        Hero spellHero = new Hero();
+        spellHero.setLevel(9);
+        spellHero.setSpells(new ArrayList<>());
+        Hero moneyHero = new Hero();
+        moneyHero.setLevel(4);
+        Hero plainHero = new Hero();
+        plainHero.setLevel(1);
+
+        Spell spell = new Spell();
+        given(gameEngineMock.generateSpecialSpells(1)).willReturn(new Spell[]{spell});
+        given(gameEngineMock.generateBonusMoney(2)).willReturn(new long[]{Gold.of(50), Gold.of(70)});
+        given(gameEngineMock.generateRandomBuffs(3)).willReturn(new Buff[]{
+                new Buff("one", BuffType.OFFENSIVE), new Buff("two", BuffType.OFFENSIVE)
+                , new Buff("three", BuffType.OFFENSIVE)});
+
+        // Act
+        gameControllerSUT.levelUpAll(Arrays.asList(spellHero, moneyHero, plainHero));
+
+        // Assert
+        assertThat(spellHero.getLevel()).isEqualTo(10);
+        assertThat(spellHero.getSpells()).containsExactly(spell);
+        assertThat(spellHero.getGold()).isEqualByComparingTo("150");
+        assertThat(moneyHero.getGold()).isEqualByComparingTo("170");
+        assertThat(plainHero.getActiveBuff().getName()).isEqualTo("three");
+
+        verify(gameEngineMock, never()).generateSpecialSpell();
+        verify(gameEngineMock, never()).generateBonusMoney();
+        verify(gameEngineMock, never()).generateRandomBuff();
+    }
+
     @Test
     public void shouldIncreaseLevelByOne_whenGainingLevel() throws Exception{
         // Arrange
@@ -91,6 +161,9 @@ class GameControllerTest {
                 .thenReturn(normalAttackOutcome)
                 .thenReturn(finalAttackOutcome);
 
+        doCallRealMethod().when(gameEngineMock).resolveSwings(
+                eq(weapon), eq(hero), eq(boss), any(SwingBatch.class));
+
         // Act
         gameControllerSUT.fightTheBoss(hero, boss);
 
@@ -100,6 +173,71 @@ class GameControllerTest {
         verify(gameEngineMock, times(3)).attack(eq(weapon), eq(boss), criticalHitCaptor.capture());
 
         assertThat(criticalHitCaptor.getValue()).isTrue();
+        verify(gameMetricsMock).recordBossFight(3);
+    }
+
+    @Test
+    public void shouldPublishEverySwing_whenFightIsWatched() throws Exception{
+        // Arrange
+        Hero hero = new Hero();
+        Weapon weapon = new Weapon();
+        hero.setEquippedWeapon(weapon);
+
+        AttackOutcome finalAttackOutcome = new AttackOutcome();
+        finalAttackOutcome.setDeadly(true);
+
+        Boss boss = new Boss();
+
+        given(fightEventBusMock.hasSubscribers()).willReturn(true);
+        when(gameEngineMock.determineCritical(weapon,hero))
+                .thenReturn(false)
+                .thenReturn(true);
+        when(gameEngineMock.attack(eq(weapon), eq(boss), anyBoolean()))
+                .thenReturn(new AttackOutcome())
+                .thenReturn(finalAttackOutcome);
+        doCallRealMethod().when(gameEngineMock).resolveSwings(
+                eq(weapon), eq(hero), eq(boss), any(SwingBatch.class));
+
+        // Act
+        Fight<RuntimeException> bossFight = gameControllerSUT.fightTheBoss(hero, boss);
+
+        // Assert
+        ArgumentCaptor<FightEvent> eventCaptor = ArgumentCaptor.forClass(FightEvent.class);
+        verify(fightEventBusMock, times(3)).publish(eventCaptor.capture());
+
+        List<FightEvent> events = eventCaptor.getAllValues();
+        assertThat(events).extracting(FightEvent::getType).containsExactly(
+                FightEvent.Type.SWING, FightEvent.Type.SWING, FightEvent.Type.FIGHT_FINISHED);
+        assertThat(events).extracting(FightEvent::getFightSeed).containsOnly(bossFight.getSeed());
+        assertThat(events.get(1).isCritical()).isTrue();
+        assertThat(events.get(1).isDeadly()).isTrue();
+        assertThat(events.get(2).getName()).isEqualTo(FightState.WON.name());
+    }
+
+    @Test
+    public void shouldYieldBossFightInProgress_whenTickBudgetRunsOut() throws Exception{
+        // Arrange
+        Hero hero = new Hero();
+        hero.setSpells(Arrays.asList(new Spell()));
+        Boss boss = new Boss();
+
+        gameControllerSUT.setFightTickBudget(2);
+
+        // Act
+        Fight<RuntimeException> bossFight = gameControllerSUT.fightTheBoss(hero, boss);
+
+        // Assert
+        assertThat(bossFight.getState()).isEqualTo(FightState.IN_PROGRESS);
+        assertThat(bossFight.getTicksSpent()).isEqualTo(2);
+        verify(gameEngineMock, times(2)).resolveSwings(any(), eq(hero), eq(boss), any(SwingBatch.class));
+
+        // Act
+        boss.setAlive(false);
+        gameControllerSUT.resumeFight(bossFight);
+
+        // Assert
+        assertThat(bossFight.isWon()).isTrue();
+        verify(gameEngineMock, times(1)).castSpell(any(), eq(boss));
     }
 
     @Captor
@@ -163,6 +301,33 @@ class GameControllerTest {
         assertThat(Ordering.natural().isOrdered(guardianChances)).isTrue();
     }
 
+    @ParameterizedTest
+    @CsvSource({"1, 10, 25, false, 36", "3, 60, 25, true, 82", "10, 0, 25, true, 32", "0, 2, 80, true, 82"})
+    public void shouldTryUnusedLockpicksFirst_givenMixedLockpicks(int unusedCount, int usedCount
+            , int lockpickingLevel, boolean opened, int expectedLockpickingLevel) throws Exception{
+        // Arrange
+        Hero hero = new Hero();
+        hero.setLockpickingLevel(lockpickingLevel);
+        List<Lockpick> lockpicks = new ArrayList<>();
+
+        for(int id = 0; id < unusedCount + usedCount; id++){
+            Lockpick lockpick = new Lockpick(id);
+            lockpick.setUsed(id >= unusedCount);
+            lockpicks.add(lockpick);
+        }
+        hero.setLockpicks(lockpicks);
+
+        Chest chest = new Chest();
+
+        // Act
+        gameControllerSUT.openLootChest(hero, chest);
+
+        // Assert
+        assertThat(hero.getLockpickingLevel()).isEqualTo(expectedLockpickingLevel);
+        assertThat(hero.getGold()).isEqualByComparingTo(opened
+                ? BigDecimal.valueOf(100).add(chest.getMoney()) : BigDecimal.valueOf(100));
+    }
+
     @Test
     public void shouldGiveHeroSuperBuff() throws Exception{
         // Arrange
@@ -172,7 +337,7 @@ class GameControllerTest {
         hero.setLevel(heroLevel);
         hero.setMoraleLevel(heroMorale);
 
-        when(gameEngineMock.giveSuperBuff(75, 8)).thenReturn(true);
+        when(gameEngineMock.getSuperBuffTable()).thenReturn(new SuperBuffTable(75, 8, 100));
 
         // Act
         gameControllerSUT.gainBuff(hero, BuffType.OFFENSIVE);
@@ -180,6 +345,19 @@ class GameControllerTest {
         // Assert
         assertThat(hero.getActiveBuff()).isInstanceOf(SuperBuff.class);
         assertThat(hero.getActiveBuff().getBuffType()).isEqualTo(BuffType.OFFENSIVE);
+        verify(buffExpiryWheelMock).schedule(eq(hero), eq(hero.getActiveBuff()), any());
+    }
+
+    @Test
+    public void shouldThrowException_givenNoBuffType() throws Exception{
+        // Arrange
+        Hero hero = new Hero();
+
+        // Act & Assert
+        assertThatThrownBy(() -> gameControllerSUT.gainBuff(hero, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(hero.getActiveBuff()).isNull();
+        verifyZeroInteractions(heroJournalMock, buffExpiryWheelMock);
     }
 
     @Test
@@ -196,7 +374,7 @@ class GameControllerTest {
                 .thenReturn(true);
 
         // Guard Assert
-        assertThat(hero.getGold()).isEqualTo(BigDecimal.valueOf(100));
+        assertThat(hero.getGold()).isEqualByComparingTo(BigDecimal.valueOf(100));
 
         // Act
         gameControllerSUT.breakIntoCastleAndSteal(hero, castle);
@@ -204,7 +382,7 @@ class GameControllerTest {
         // Assert
         verify(gameEngineMock, times(1)).attemptToOpenDoor(
                 any(Lockpick.class), eq(hero.getLockpickingLevel()));
-        assertThat(hero.getGold()).isEqualTo(BigDecimal.valueOf(100).add(jeweleryWorth));
+        assertThat(hero.getGold()).isEqualByComparingTo(BigDecimal.valueOf(100).add(jeweleryWorth));
     }
 
     @Test
@@ -218,10 +396,10 @@ class GameControllerTest {
         doReturn(true).when(castleSpy).defenseStarted();
 
         // Act
-        boolean castleDefended = gameControllerSUT.defendCastle(hero, castleSpy);
+        Fight<RuntimeException> castleDefense = gameControllerSUT.defendCastle(hero, castleSpy);
 
         // Assert
-        assertThat(castleDefended).isTrue();
+        assertThat(castleDefense.isWon()).isTrue();
     }
 
     @Test
@@ -333,4 +511,21 @@ class GameControllerTest {
         assertThat(lootWorth)
                 .isEqualByComparingTo(expectedLootWorth);
     }
+
+    @ParameterizedTest
+    @MethodSource("shouldCountLoot")
+    public void shouldCountLootKeptInHoard(List<Treasure> treasures, Hero hero,
+                                           BigDecimal expectedLootWorth) throws Exception{
+        // Given
+        DragonHoard loot = new DragonHoard();
+        loot.addAll(treasures);
+        loot.addGold(Gold.of(10_000));
+
+        // When
+        BigDecimal lootWorth = gameControllerSUT.countLoot(loot, hero);
+
+        // Then
+        assertThat(lootWorth)
+                .isEqualByComparingTo(expectedLootWorth);
+    }
 }
\ No newline at end of file
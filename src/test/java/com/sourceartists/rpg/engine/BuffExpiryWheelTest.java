@@ -0,0 +1,143 @@
+package com.sourceartists.rpg.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sourceartists.rpg.model.Buff;
+import com.sourceartists.rpg.model.BuffDefinition;
+import com.sourceartists.rpg.model.BuffType;
+import com.sourceartists.rpg.model.Hero;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+class BuffExpiryWheelTest {
+
+    // The ticker never fires during a test; the tests turn the wheel by hand.
+    private static final long NEVER = TimeUnit.HOURS.toMillis(1);
+
+    @Test
+    public void shouldExpireBuff_onTheTickAfterItsTimeRunsOut() throws Exception{
+        // Arrange
+        BuffExpiryWheel wheel = new BuffExpiryWheel(NEVER);
+        Hero hero = new Hero();
+        Buff buff = buff(3);
+        hero.setActiveBuff(buff);
+
+        // Act
+        BuffExpiryWheel.Expiry expiry = wheel.schedule(hero, buff);
+        int ticks = ticksUntilExpired(wheel, expiry);
+        wheel.stop();
+
+        // Assert
+        assertThat(ticks).isEqualTo(4);
+        assertThat(hero.getActiveBuff()).isNull();
+        assertThat(buff.getTimeLeft()).isZero();
+    }
+
+    @Test
+    public void shouldWaitFullRounds_whenBuffOutlastsTheWheel() throws Exception{
+        // Arrange
+        BuffExpiryWheel wheel = new BuffExpiryWheel(NEVER);
+        Hero hero = new Hero();
+        Buff buff = buff(2 * BuffExpiryWheel.WHEEL_SIZE + 5);
+        hero.setActiveBuff(buff);
+
+        // Act
+        BuffExpiryWheel.Expiry expiry = wheel.schedule(hero, buff);
+        int ticks = ticksUntilExpired(wheel, expiry);
+        wheel.stop();
+
+        // Assert
+        assertThat(ticks).isEqualTo(2 * BuffExpiryWheel.WHEEL_SIZE + 6);
+        assertThat(hero.getActiveBuff()).isNull();
+    }
+
+    @Test
+    public void shouldNeverExpireBuff_whenCancelled() throws Exception{
+        // Arrange
+        BuffExpiryWheel wheel = new BuffExpiryWheel(NEVER);
+        Hero hero = new Hero();
+        Buff buff = buff(3);
+        hero.setActiveBuff(buff);
+        List<Buff> expired = new ArrayList<>();
+        BuffExpiryWheel.Expiry expiry = wheel.schedule(hero, buff, expired::add);
+        wheel.tick();
+
+        // Act
+        boolean cancelled = expiry.cancel();
+        for(int tick = 0; tick < BuffExpiryWheel.WHEEL_SIZE + 1; tick++){
+            wheel.tick();
+        }
+        wheel.stop();
+
+        // Assert
+        assertThat(cancelled).isTrue();
+        assertThat(expiry.cancel()).isFalse();
+        assertThat(expiry.isExpired()).isFalse();
+        assertThat(hero.getActiveBuff()).isSameAs(buff);
+        assertThat(expired.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void shouldTellListener_onlyWhenWheelClearedTheBuff() throws Exception{
+        // Arrange
+        BuffExpiryWheel wheel = new BuffExpiryWheel(NEVER);
+        Hero hero = new Hero();
+        Hero movedOnHero = new Hero();
+        Buff buff = buff(1);
+        Buff replacedBuff = buff(1);
+        hero.setActiveBuff(buff);
+        movedOnHero.setActiveBuff(buff(60));
+        List<Buff> expired = new ArrayList<>();
+
+        // Act
+        wheel.schedule(hero, buff, expired::add);
+        BuffExpiryWheel.Expiry replaced = wheel.schedule(movedOnHero, replacedBuff, expired::add);
+        ticksUntilExpired(wheel, replaced);
+        wheel.stop();
+
+        // Assert
+        assertThat(expired).containsExactly(buff);
+        assertThat(hero.getActiveBuff()).isNull();
+        assertThat(movedOnHero.getActiveBuff()).isNotNull();
+    }
+
+    @Test
+    public void shouldNotQueueExpiries_onceStopped() throws Exception{
+        // Arrange
+        BuffExpiryWheel wheel = new BuffExpiryWheel(NEVER);
+        Hero hero = new Hero();
+        Buff buff = buff(1);
+        hero.setActiveBuff(buff);
+        wheel.stop();
+
+        // Act
+        BuffExpiryWheel.Expiry expiry = wheel.schedule(hero, buff);
+        wheel.tick();
+        wheel.tick();
+
+        // Assert
+        assertThat(expiry.isExpired()).isFalse();
+        assertThat(hero.getActiveBuff()).isSameAs(buff);
+    }
+
+    private static int ticksUntilExpired(BuffExpiryWheel wheel, BuffExpiryWheel.Expiry expiry){
+        int ticks = 0;
+
+        while(!expiry.isExpired()){
+            wheel.tick();
+            ticks++;
+        }
+
+        return ticks;
+    }
+
+    private static Buff buff(int timeLeft){
+        Buff buff = new Buff(BuffDefinition.of("test buff", BuffType.OFFENSIVE));
+        buff.setTimeLeft(timeLeft);
+
+        return buff;
+    }
+}
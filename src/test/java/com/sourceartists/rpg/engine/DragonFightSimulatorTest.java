@@ -0,0 +1,128 @@
+package com.sourceartists.rpg.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.sourceartists.rpg.model.Dragon;
+import com.sourceartists.rpg.model.DragonType;
+import com.sourceartists.rpg.model.Hero;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+class DragonFightSimulatorTest {
+
+    private static final double Z_95 = 1.959964;
+
+    @Test
+    public void shouldStopAfterFirstBatch_whenHeroNeverWins() throws Exception{
+        // Arrange
+        StubbedEngine gameEngine = new StubbedEngine(0.0);
+        DragonFightSimulator dragonFightSimulatorSUT = newSimulator(gameEngine);
+
+        // Act
+        DragonOdds odds = dragonFightSimulatorSUT.estimate(newHero(), DragonType.NORMAL);
+
+        // Assert
+        assertThat(odds.getTrials()).isEqualTo(DragonFightSimulator.BATCH_TRIALS);
+        assertThat(gameEngine.fights.get()).isEqualTo(DragonFightSimulator.BATCH_TRIALS);
+        assertThat(odds.getWins()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldReturnWilsonBounds_whenHeroNeverWins() throws Exception{
+        // Arrange
+        DragonFightSimulator dragonFightSimulatorSUT = newSimulator(new StubbedEngine(0.0));
+        double trials = DragonFightSimulator.BATCH_TRIALS;
+
+        // Act
+        DragonOdds odds = dragonFightSimulatorSUT.estimate(newHero(), DragonType.NORMAL);
+
+        // Assert
+        // With no wins the Wilson interval is [0, z^2 / (n + z^2)].
+        assertThat(odds.getLowerBound()).isEqualTo(0.0);
+        assertThat(odds.getUpperBound()).isCloseTo(Z_95 * Z_95 / (trials + Z_95 * Z_95), within(1e-9));
+    }
+
+    @Test
+    public void shouldSampleUntilIntervalIsNarrowEnough_whenOddsAreEven() throws Exception{
+        // Arrange
+        DragonFightSimulator dragonFightSimulatorSUT = newSimulator(new StubbedEngine(0.5));
+
+        // Act
+        DragonOdds odds = dragonFightSimulatorSUT.estimate(newHero(), DragonType.NORMAL);
+
+        // Assert
+        assertThat(odds.getTrials()).isGreaterThan(DragonFightSimulator.BATCH_TRIALS);
+        assertThat(odds.getTrials()).isLessThan(DragonFightSimulator.MAX_TRIALS);
+        assertThat(odds.getTrials() % DragonFightSimulator.BATCH_TRIALS).isEqualTo(0);
+        assertThat(odds.getUpperBound() - odds.getLowerBound())
+                .isLessThanOrEqualTo(2 * DragonFightSimulator.TARGET_HALF_WIDTH);
+        assertThat(odds.getLowerBound()).isLessThan(0.5);
+        assertThat(odds.getUpperBound()).isGreaterThan(0.5);
+    }
+
+    @Test
+    public void shouldReproduceEstimate_whenSimulatedAgainWithSameStats() throws Exception{
+        // Arrange
+        DragonFightSimulator firstSimulator = newSimulator(new StubbedEngine(0.3));
+        DragonFightSimulator secondSimulator = newSimulator(new StubbedEngine(0.3));
+
+        // Act
+        DragonOdds firstOdds = firstSimulator.estimate(newHero(), DragonType.NORMAL);
+        DragonOdds secondOdds = secondSimulator.estimate(newHero(), DragonType.NORMAL);
+
+        // Assert
+        assertThat(secondOdds.getTrials()).isEqualTo(firstOdds.getTrials());
+        assertThat(secondOdds.getWins()).isEqualTo(firstOdds.getWins());
+    }
+
+    @Test
+    public void shouldServeCachedEstimate_whenHeroWithSameStatsAsksAgain() throws Exception{
+        // Arrange
+        StubbedEngine gameEngine = new StubbedEngine(0.3);
+        DragonFightSimulator dragonFightSimulatorSUT = newSimulator(gameEngine);
+        DragonOdds firstOdds = dragonFightSimulatorSUT.estimate(newHero(), DragonType.NORMAL);
+        int fightsSimulated = gameEngine.fights.get();
+
+        // Act
+        DragonOdds cachedOdds = dragonFightSimulatorSUT.estimate(newHero(), DragonType.NORMAL);
+
+        // Assert
+        assertThat(cachedOdds).isSameAs(firstOdds);
+        assertThat(gameEngine.fights.get()).isEqualTo(fightsSimulated);
+    }
+
+    private static DragonFightSimulator newSimulator(GameEngine gameEngine){
+        return new DragonFightSimulator(gameEngine, StrengthModifierTable.load());
+    }
+
+    private static Hero newHero(){
+        Hero hero = new Hero();
+        hero.setLevel(20);
+        hero.setMoraleLevel(5);
+        hero.setStrength(40);
+
+        return hero;
+    }
+
+    /**
+     * Wins each fight with fixed odds, rolled from the fight's own random stream.
+     */
+    private static class StubbedEngine extends GameEngine {
+
+        private final double winProbability;
+        private final AtomicInteger fights = new AtomicInteger();
+
+        private StubbedEngine(double winProbability) {
+            this.winProbability = winProbability;
+        }
+
+        @Override
+        public boolean fightWithDragon(Hero hero, Dragon dragon) {
+            fights.incrementAndGet();
+
+            return FightRandom.current().nextDouble() < winProbability;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.sourceartists.rpg.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sourceartists.rpg.model.Dragon;
+import com.sourceartists.rpg.model.Hero;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+class DragonRaidCoordinatorTest {
+
+    @Test
+    public void shouldDrainHoardExactlyOnce_whenRaidedConcurrently() throws Exception{
+        // Arrange
+        int threads = 16;
+        int stealsPerThread = 100_000;
+        long hoardGold = 1_000_000;
+
+        AtomicInteger raidersInside = new AtomicInteger();
+        AtomicInteger maxRaidersInside = new AtomicInteger();
+        GameEngine gameEngine = new GameEngine(){
+            @Override
+            public long stealGold(Hero hero, Dragon dragon, long amountMinorUnits){
+                maxRaidersInside.accumulateAndGet(raidersInside.incrementAndGet(), Math::max);
+                try {
+                    return super.stealGold(hero, dragon, amountMinorUnits);
+                } finally {
+                    raidersInside.decrementAndGet();
+                }
+            }
+        };
+        DragonRaidCoordinator coordinator = new DragonRaidCoordinator(gameEngine);
+
+        Dragon dragon = new Dragon();
+        dragon.getHoard().addGold(hoardGold);
+        AtomicLong stolen = new AtomicLong();
+        AtomicLong successfulSteals = new AtomicLong();
+
+        // Act
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        for(int thread = 0; thread < threads; thread++){
+            executor.execute(() -> {
+                Hero hero = new Hero();
+
+                for(int steal = 0; steal < stealsPerThread; steal++){
+                    long gold = coordinator.stealGold(hero, dragon, 1);
+                    stolen.addAndGet(gold);
+
+                    if(gold > 0){
+                        successfulSteals.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        executor.shutdown();
+        assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+
+        // Assert
+        assertThat(stolen.get()).isEqualTo(hoardGold);
+        assertThat(successfulSteals.get()).isEqualTo(hoardGold);
+        assertThat(dragon.getHoard().getGoldMinorUnits()).isZero();
+        assertThat(maxRaidersInside.get()).isEqualTo(1);
+    }
+}
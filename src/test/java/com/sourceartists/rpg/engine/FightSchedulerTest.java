@@ -0,0 +1,55 @@
+package com.sourceartists.rpg.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sourceartists.rpg.model.Hero;
+import com.sourceartists.rpg.model.Weapon;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class FightSchedulerTest {
+
+    private static final int ROLLS = 200;
+
+    @Test
+    public void shouldReplayFightExactly_whenStartedAgainWithSameSeed() throws Exception{
+        // Arrange
+        GameEngine gameEngine = new GameEngine();
+        FightScheduler fightScheduler = new FightScheduler(ROLLS);
+        FightScheduler slicedScheduler = new FightScheduler(7);
+        List<Integer> firstRolls = new ArrayList<>();
+        List<Integer> replayedRolls = new ArrayList<>();
+        long seed = fightScheduler.nextSeed();
+
+        // Act
+        Fight<RuntimeException> fight = fightScheduler.start(seed, rolling(gameEngine, firstRolls));
+
+        Fight<RuntimeException> replay = slicedScheduler.start(seed, rolling(gameEngine, replayedRolls));
+        while(!replay.isFinished()){
+            // Another fight in between must not disturb the replay's stream.
+            slicedScheduler.start(rolling(gameEngine, new ArrayList<>()));
+            slicedScheduler.run(replay);
+        }
+
+        // Assert
+        assertThat(fight.isWon()).isTrue();
+        assertThat(replay.isWon()).isTrue();
+        assertThat(replayedRolls).isEqualTo(firstRolls);
+    }
+
+    /**
+     * Rolls the engine's odds once per tick, like a fight does, until {@value #ROLLS} rolls are in.
+     */
+    private static FightTick<RuntimeException> rolling(GameEngine gameEngine, List<Integer> rolls){
+        Hero hero = new Hero();
+        Weapon weapon = new Weapon();
+
+        return () -> {
+            rolls.add(gameEngine.determineCritical(weapon, hero) ? -1 : FightRandom.current().nextInt(1000));
+
+            return rolls.size() == ROLLS ? FightState.WON : FightState.IN_PROGRESS;
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package com.sourceartists.rpg.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sourceartists.rpg.model.Boss;
+import com.sourceartists.rpg.model.Hero;
+import com.sourceartists.rpg.model.SwingBatch;
+import com.sourceartists.rpg.model.Weapon;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+class GameEngineTest {
+
+    @Test
+    public void shouldRollSameCriticalsAsDetermineCritical_whenResolvingSwingBatch() throws Exception{
+        // Arrange
+        GameEngine gameEngine = new GameEngine();
+        Hero hero = new Hero();
+        Weapon weapon = new Weapon();
+        Boss boss = new Boss();
+        SwingBatch swings = new SwingBatch(64);
+        boolean[] expectedCriticals = new boolean[swings.capacity()];
+
+        SplittableRandom previous = FightRandom.bind(new SplittableRandom(42));
+        try {
+            for(int swing = 0; swing < expectedCriticals.length; swing++){
+                expectedCriticals[swing] = gameEngine.determineCritical(weapon, hero);
+            }
+        } finally {
+            FightRandom.restore(previous);
+        }
+
+        // Act
+        previous = FightRandom.bind(new SplittableRandom(42));
+        try {
+            gameEngine.resolveSwings(weapon, hero, boss, swings);
+        } finally {
+            FightRandom.restore(previous);
+        }
+
+        // Assert
+        assertThat(swings.isFull()).isTrue();
+        assertThat(swings.isDeadly()).isFalse();
+
+        for(int swing = 0; swing < expectedCriticals.length; swing++){
+            assertThat(swings.isCritical(swing)).isEqualTo(expectedCriticals[swing]);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.sourceartists.rpg.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class PrefetchRingTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int CONSUMERS = 4;
+    private static final int ELEMENTS_PER_PRODUCER = 50_000;
+    private static final int ELEMENTS = PRODUCERS * ELEMENTS_PER_PRODUCER;
+
+    @Test
+    public void shouldHandEveryElementOutOnce_whenOfferedAndPolledConcurrently() throws Exception{
+        // Arrange
+        PrefetchRing<Integer> ring = new PrefetchRing<>(64);
+        BitSet[] polled = new BitSet[CONSUMERS];
+        AtomicInteger polledCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS + CONSUMERS);
+
+        // Act
+        for(int producer = 0; producer < PRODUCERS; producer++){
+            int first = producer * ELEMENTS_PER_PRODUCER;
+            executor.execute(() -> {
+                for(int element = first; element < first + ELEMENTS_PER_PRODUCER; element++){
+                    while(!ring.offer(element)){
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+
+        for(int consumer = 0; consumer < CONSUMERS; consumer++){
+            BitSet seen = polled[consumer] = new BitSet(ELEMENTS);
+            executor.execute(() -> {
+                while(polledCount.get() < ELEMENTS){
+                    Integer element = ring.poll();
+
+                    if(element != null){
+                        seen.set(element);
+                        polledCount.incrementAndGet();
+                    }else{
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+        // Assert
+        assertThat(polledCount.get()).isEqualTo(ELEMENTS);
+        assertThat(union(polled).cardinality()).isEqualTo(ELEMENTS);
+        assertThat(ring.poll()).isNull();
+    }
+
+    @Test
+    public void shouldHandEveryValueOutOnce_whenLongsOfferedAndPolledConcurrently() throws Exception{
+        // Arrange
+        LongPrefetchRing ring = new LongPrefetchRing(64);
+        BitSet[] polled = new BitSet[CONSUMERS];
+        AtomicInteger polledCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS + CONSUMERS);
+
+        // Act
+        for(int producer = 0; producer < PRODUCERS; producer++){
+            int first = producer * ELEMENTS_PER_PRODUCER;
+            executor.execute(() -> {
+                for(long value = first; value < first + ELEMENTS_PER_PRODUCER; value++){
+                    while(!ring.offer(value)){
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+
+        for(int consumer = 0; consumer < CONSUMERS; consumer++){
+            BitSet seen = polled[consumer] = new BitSet(ELEMENTS);
+            executor.execute(() -> {
+                while(polledCount.get() < ELEMENTS){
+                    long value = ring.poll(() -> -1);
+
+                    if(value >= 0){
+                        seen.set((int) value);
+                        polledCount.incrementAndGet();
+                    }else{
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+        // Assert
+        assertThat(polledCount.get()).isEqualTo(ELEMENTS);
+        assertThat(union(polled).cardinality()).isEqualTo(ELEMENTS);
+        assertThat(ring.poll(() -> -1)).isEqualTo(-1);
+    }
+
+    private static BitSet union(BitSet[] bitSets){
+        BitSet union = new BitSet(ELEMENTS);
+
+        for(BitSet bitSet: bitSets){
+            union.or(bitSet);
+        }
+
+        return union;
+    }
+}
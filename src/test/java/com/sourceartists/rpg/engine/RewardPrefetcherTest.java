@@ -0,0 +1,61 @@
+package com.sourceartists.rpg.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+class RewardPrefetcherTest {
+
+    @Test
+    public void shouldNeverHandOutSameReward_whenTakenConcurrentlyWhileRefilling() throws Exception{
+        // Arrange
+        int takers = 8;
+        int rewardsPerTaker = 100_000;
+        AtomicLong generated = new AtomicLong();
+        RewardPrefetcher rewardPrefetcher = new RewardPrefetcher();
+        LongSupplier rewards = rewardPrefetcher.prefetchLong(generated::incrementAndGet, 256);
+        long[][] taken = new long[takers][rewardsPerTaker];
+        rewardPrefetcher.start();
+
+        // Act
+        ExecutorService executor = Executors.newFixedThreadPool(takers);
+
+        for(int taker = 0; taker < takers; taker++){
+            long[] takenByTaker = taken[taker];
+            executor.execute(() -> {
+                for(int reward = 0; reward < rewardsPerTaker; reward++){
+                    takenByTaker[reward] = rewards.getAsLong();
+                }
+            });
+        }
+
+        executor.shutdown();
+        boolean finished = executor.awaitTermination(1, TimeUnit.MINUTES);
+        rewardPrefetcher.stop();
+
+        // Assert
+        assertThat(finished).isTrue();
+
+        BitSet seen = new BitSet();
+        int duplicates = 0;
+        for(long[] takenByTaker: taken){
+            for(long reward: takenByTaker){
+                if(seen.get((int) reward)){
+                    duplicates++;
+                }
+                seen.set((int) reward);
+            }
+        }
+
+        assertThat(duplicates).isZero();
+        assertThat(seen.cardinality()).isEqualTo(takers * rewardsPerTaker);
+        assertThat(seen.nextSetBit(0)).isEqualTo(1);
+    }
+}
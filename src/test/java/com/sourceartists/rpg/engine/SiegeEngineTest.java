@@ -0,0 +1,57 @@
+package com.sourceartists.rpg.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sourceartists.rpg.model.Castle;
+import com.sourceartists.rpg.model.Hero;
+import org.junit.jupiter.api.Test;
+
+class SiegeEngineTest {
+
+    private static final int ARMY_SIZE = 1000;
+    private static final long VOLLEY_SEED = 42L;
+
+    @Test
+    public void shouldDealSameDamage_whenVolleyIsResolvedInParallelOrSequentially() throws Exception{
+        // Arrange
+        GameEngine gameEngine = new GameEngine();
+        SiegeEngine parallelSiegeEngine = new SiegeEngine(gameEngine, 1);
+        SiegeEngine sequentialSiegeEngine = new SiegeEngine(gameEngine, Integer.MAX_VALUE);
+        Hero[] army = newArmy();
+        Castle parallelCastle = new Castle();
+        Castle sequentialCastle = new Castle();
+
+        // Act
+        long parallelDamage = parallelSiegeEngine.volley(army, parallelCastle, VOLLEY_SEED);
+        long sequentialDamage = sequentialSiegeEngine.volley(army, sequentialCastle, VOLLEY_SEED);
+
+        // Assert
+        assertThat(parallelDamage).isPositive();
+        assertThat(parallelDamage).isEqualTo(sequentialDamage);
+        assertThat(parallelCastle.getHitPoints()).isEqualTo(sequentialCastle.getHitPoints());
+    }
+
+    @Test
+    public void shouldDealNoDamage_givenNoArmy() throws Exception{
+        // Arrange
+        SiegeEngine siegeEngineSUT = new SiegeEngine(new GameEngine());
+        Castle castle = new Castle();
+
+        // Act
+        long damage = siegeEngineSUT.volley(new Hero[0], castle, VOLLEY_SEED);
+
+        // Assert
+        assertThat(damage).isZero();
+        assertThat(castle.getHitPoints()).isEqualTo(Castle.DEFAULT_HIT_POINTS);
+    }
+
+    private static Hero[] newArmy(){
+        Hero[] army = new Hero[ARMY_SIZE];
+
+        for(int soldier = 0; soldier < ARMY_SIZE; soldier++){
+            army[soldier] = new Hero();
+        }
+
+        return army;
+    }
+}
@@ -0,0 +1,81 @@
+package com.sourceartists.rpg.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sourceartists.rpg.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+class StrengthModifierTableTest {
+
+    @Test
+    public void shouldReproduceMoraleGains_givenShippedModifiers() throws Exception{
+        // Arrange
+        StrengthModifierTable strengthModifierTableSUT = StrengthModifierTable.load();
+
+        // Act & Assert
+        assertThat(strengthModifierTableSUT.strengthGain(1, null, null, DragonType.MIGHTY)).isEqualTo(-1);
+        assertThat(strengthModifierTableSUT.strengthGain(2, null, null, DragonType.MIGHTY)).isEqualTo(3);
+        assertThat(strengthModifierTableSUT.strengthGain(3, null, null, DragonType.MIGHTY)).isEqualTo(10);
+        assertThat(strengthModifierTableSUT.strengthGain(4, null, null, DragonType.MIGHTY)).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldAddUpModifiers_givenClassBuffAndDragon() throws Exception{
+        // Arrange
+        Properties modifiers = new Properties();
+        modifiers.setProperty("morale.2", "3");
+        modifiers.setProperty("class.BARBARIAN", "2");
+        modifiers.setProperty("buff.INCREASED_STRENTH", "5");
+        modifiers.setProperty("dragon.MIGHTY", "-4");
+        StrengthModifierTable strengthModifierTableSUT = StrengthModifierTable.of(modifiers);
+
+        Hero hero = new Hero();
+        hero.setMoraleLevel(2);
+        hero.setHeroClass(HeroClass.BARBARIAN);
+        hero.setActiveBuff(new Buff("Giant strength", BuffType.INCREASED_STRENTH));
+
+        // Act
+        int mightyGain = strengthModifierTableSUT.strengthGain(hero, new MightyDragon());
+        int normalGain = strengthModifierTableSUT.strengthGain(hero, new Dragon());
+
+        // Assert
+        assertThat(mightyGain).isEqualTo(3 + 2 + 5 - 4);
+        assertThat(normalGain).isEqualTo(3 + 2 + 5);
+        assertThat(strengthModifierTableSUT.strengthGain(2, HeroClass.KNIGHT, BuffType.OFFENSIVE
+                , DragonType.MIGHTY)).isEqualTo(3 - 4);
+    }
+
+    @Test
+    public void shouldGiveNothing_givenUnconfiguredOrMissingMorale() throws Exception{
+        // Arrange
+        StrengthModifierTable strengthModifierTableSUT = StrengthModifierTable.load();
+        Hero heroWithoutMorale = new Hero() {
+            @Override
+            public Integer getMoraleLevel() {
+                return null;
+            }
+        };
+        Hero heroWithHighMorale = new Hero();
+        heroWithHighMorale.setMoraleLevel(1000);
+
+        // Act & Assert
+        assertThat(strengthModifierTableSUT.strengthGain(heroWithoutMorale, new MightyDragon())).isEqualTo(0);
+        assertThat(strengthModifierTableSUT.strengthGain(heroWithHighMorale, new MightyDragon())).isEqualTo(0);
+        assertThat(strengthModifierTableSUT.strengthGain(-1, null, null, DragonType.MIGHTY)).isEqualTo(0);
+        assertThat(strengthModifierTableSUT.strengthGain(0, null, null, DragonType.MIGHTY)).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldThrowException_givenMoraleLevelAboveMaximum() throws Exception{
+        // Arrange
+        Properties modifiers = new Properties();
+        modifiers.setProperty("morale.10000000", "1");
+
+        // Act & Assert
+        assertThatThrownBy(() -> StrengthModifierTable.of(modifiers))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,63 @@
+package com.sourceartists.rpg.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+
+class BuffDefinitionTest {
+
+    private static final int GC_ATTEMPTS = 50;
+
+    @Test
+    public void shouldShareDefinition_givenSameNameTypeAndDuration() throws Exception{
+        // Act
+        BuffDefinition definition = BuffDefinition.of("Rage", BuffType.OFFENSIVE);
+        BuffDefinition sameDefinition = BuffDefinition.of(new String("Rage"), BuffType.OFFENSIVE);
+
+        // Assert
+        assertThat(sameDefinition).isSameAs(definition);
+        assertThat(BuffDefinition.of("Rage", BuffType.DEFENSIVE)).isNotSameAs(definition);
+        assertThat(BuffDefinition.of("Rage", BuffType.OFFENSIVE, 30)).isNotSameAs(definition);
+    }
+
+    @Test
+    public void shouldKeepBuffTypeAndDuration_whenBuffIsRenamed() throws Exception{
+        // Arrange
+        Buff buff = new Buff(BuffDefinition.of("Rage", BuffType.OFFENSIVE, 30));
+
+        // Act
+        buff.setName("Fury");
+
+        // Assert
+        assertThat(buff.getDefinition()).isSameAs(BuffDefinition.of("Fury", BuffType.OFFENSIVE, 30));
+    }
+
+    @Test
+    public void shouldIndexDefinitionsByBuffType() throws Exception{
+        // Act
+        BuffDefinition[] definitions = BuffDefinition.forEveryType("Blessing");
+
+        // Assert
+        for(BuffType buffType: BuffType.values()){
+            assertThat(definitions[buffType.ordinal()]).isSameAs(BuffDefinition.of("Blessing", buffType));
+        }
+    }
+
+    @Test
+    public void shouldDropDefinition_whenNoBuffRefersToIt() throws Exception{
+        // Arrange
+        WeakReference<BuffDefinition> definition = new WeakReference<>(
+                BuffDefinition.of("Short-lived buff " + System.nanoTime(), BuffType.OFFENSIVE));
+
+        // Act
+        for(int attempt = 0; attempt < GC_ATTEMPTS && definition.get() != null; attempt++){
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        // Assert
+        assertThat(definition.get()).isNull();
+    }
+}
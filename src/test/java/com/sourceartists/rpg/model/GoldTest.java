@@ -0,0 +1,39 @@
+package com.sourceartists.rpg.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+class GoldTest {
+
+    @Test
+    public void shouldConvertToTwoDecimalPlaces_givenWholeAndFractionalGold() throws Exception{
+        // Act
+        BigDecimal wholeGold = Gold.toBigDecimal(Gold.of(100));
+        BigDecimal fractionalGold = Gold.toBigDecimal(12_345);
+
+        // Assert
+        assertThat(wholeGold).isEqualTo(new BigDecimal("100.00"));
+        assertThat(fractionalGold).isEqualTo(new BigDecimal("123.45"));
+        assertThat(Gold.toBigDecimal(-5)).isEqualTo(new BigDecimal("-0.05"));
+    }
+
+    @Test
+    public void shouldConvertToMinorUnits_givenAtMostTwoDecimalPlaces() throws Exception{
+        // Act & Assert
+        assertThat(Gold.toMinorUnits(new BigDecimal("100"))).isEqualTo(10_000L);
+        assertThat(Gold.toMinorUnits(new BigDecimal("1.5"))).isEqualTo(150L);
+        assertThat(Gold.toMinorUnits(new BigDecimal("0.070"))).isEqualTo(7L);
+        assertThat(Gold.toMinorUnits(new BigDecimal("1E+3"))).isEqualTo(100_000L);
+    }
+
+    @Test
+    public void shouldThrowException_givenFractionOfMinorUnit() throws Exception{
+        // Act & Assert
+        assertThatThrownBy(() -> Gold.toMinorUnits(new BigDecimal("0.005")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
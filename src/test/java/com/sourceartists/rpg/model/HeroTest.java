@@ -0,0 +1,93 @@
+package com.sourceartists.rpg.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class HeroTest {
+
+    private static final int THREADS = 4;
+    private static final int LOCKPICKS_PER_THREAD = 250;
+
+    @Test
+    public void shouldKeepEveryLockpick_whenThreadsAddAndUseThemConcurrently() throws Exception{
+        // Arrange
+        Hero hero = new Hero();
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Future<?>[] workers = new Future<?>[THREADS];
+
+        // Act
+        for(int thread = 0; thread < THREADS; thread++){
+            int firstId = thread;
+            workers[thread] = threads.submit(() -> {
+                start.await();
+
+                for(int pick = 0; pick < LOCKPICKS_PER_THREAD; pick++){
+                    Lockpick lockpick = new Lockpick(firstId + pick * THREADS);
+                    hero.getLockpickInventory().add(lockpick);
+
+                    if(pick % 2 == 0){
+                        hero.getLockpickInventory().markUsed(lockpick);
+                    }
+                }
+
+                return null;
+            });
+        }
+        start.countDown();
+        for(Future<?> worker: workers){
+            worker.get(10, TimeUnit.SECONDS);
+        }
+        threads.shutdown();
+
+        // Assert
+        LockpickInventory inventory = hero.getLockpickInventory();
+        List<Lockpick> lockpicks = hero.getLockpicks();
+        int totalLockpicks = THREADS * LOCKPICKS_PER_THREAD;
+
+        assertThat(inventory.size()).isEqualTo(totalLockpicks);
+        assertThat(inventory.getUsedCount()).isEqualTo(totalLockpicks / 2);
+        assertThat(inventory.getUnusedCount()).isEqualTo(totalLockpicks / 2);
+        assertThat(lockpicks).hasSize(totalLockpicks);
+        assertThat(lockpicks.stream().filter(Lockpick::isUsed).count()).isEqualTo(totalLockpicks / 2);
+        for(int id = 0; id < totalLockpicks; id++){
+            assertThat(lockpicks.get(id).getId()).isEqualTo(id);
+        }
+    }
+
+    @Test
+    public void shouldReflectUsedLockpick_inLockpickList() throws Exception{
+        // Arrange
+        Hero hero = new Hero();
+        Lockpick lockpick = new Lockpick(1);
+        hero.setLockpicks(Arrays.asList(new Lockpick(0), lockpick));
+
+        // Act
+        hero.getLockpickInventory().markUsed(lockpick);
+
+        // Assert
+        assertThat(hero.getLockpicks()).containsExactly(new Lockpick(0), lockpick);
+        assertThat(hero.getLockpicks().get(1).isUsed()).isTrue();
+        assertThat(hero.getLockpickInventory().getUsedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldHaveNoLockpicks_givenNewHero() throws Exception{
+        // Arrange
+        Hero hero = new Hero();
+
+        // Act & Assert
+        assertThat(hero.getLockpicks()).isEmpty();
+        assertThat(hero.getLockpickInventory().size()).isEqualTo(0);
+        assertThat(hero.getLockpickInventory()).isSameAs(hero.getLockpickInventory());
+    }
+}
@@ -0,0 +1,236 @@
+package com.sourceartists.rpg.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sourceartists.rpg.model.Buff;
+import com.sourceartists.rpg.model.BuffDefinition;
+import com.sourceartists.rpg.model.BuffType;
+import com.sourceartists.rpg.model.Gold;
+import com.sourceartists.rpg.model.Hero;
+import com.sourceartists.rpg.model.SuperBuff;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class HeroJournalTest {
+
+    @TempDir
+    Path journalDir;
+
+    @Test
+    public void shouldReplayIncrements_afterReopening() throws Exception{
+        // Arrange
+        Path journalFile = journalDir.resolve("hero-journal.log");
+
+        try(HeroJournal journal = new HeroJournal(journalFile, HeroJournal.DEFAULT_BATCH_SIZE)){
+            journal.append(HeroJournal.EventType.LEVEL_UP, 7, 1);
+            journal.append(HeroJournal.EventType.LEVEL_UP, 7, 1);
+            journal.awaitDurable(journal.append(HeroJournal.EventType.ADD_MONEY, 7, Gold.of(25)));
+        }
+
+        Hero hero = hero(7);
+
+        // Act
+        try(HeroJournal journal = new HeroJournal(journalFile, HeroJournal.DEFAULT_BATCH_SIZE)){
+            long recoveredSeq = journal.recover(id -> id == 7 ? hero : null, Hero::getJournalSeq, (restored, value) -> {});
+
+            // Assert
+            assertThat(recoveredSeq).isEqualTo(3);
+        }
+
+        assertThat(hero.getLevel()).isEqualTo(3);
+        assertThat(hero.getGoldMinorUnits()).isEqualTo(Gold.of(125));
+    }
+
+    @Test
+    public void shouldSkipEvents_alreadyReflectedByStoredHeroOrCheckpoint() throws Exception{
+        // Arrange
+        Path journalFile = journalDir.resolve("hero-journal.log");
+        Hero hero = hero(7);
+        long reflectedSeq;
+
+        try(HeroJournal journal = new HeroJournal(journalFile, HeroJournal.DEFAULT_BATCH_SIZE)){
+            journal.append(HeroJournal.EventType.ADD_MONEY, 7, Gold.of(1), seq -> {
+                hero.addMoney(Gold.of(1));
+                hero.setJournalSeq(seq);
+            });
+            reflectedSeq = hero.getJournalSeq();
+            journal.awaitDurable(journal.append(HeroJournal.EventType.ADD_MONEY, 7, Gold.of(10)));
+        }
+
+        Hero storedHero = hero(7);
+        storedHero.setGoldMinorUnits(hero.getGoldMinorUnits());
+        storedHero.setJournalSeq(reflectedSeq);
+
+        // Act
+        try(HeroJournal journal = new HeroJournal(journalFile, HeroJournal.DEFAULT_BATCH_SIZE)){
+            journal.checkpoint(journal.recover(id -> storedHero, Hero::getJournalSeq, (restored, value) -> {}));
+        }
+
+        try(HeroJournal journal = new HeroJournal(journalFile, HeroJournal.DEFAULT_BATCH_SIZE)){
+            journal.recover(id -> storedHero, anyHero -> 0, (restored, value) -> {});
+        }
+
+        // Assert
+        assertThat(storedHero.getGoldMinorUnits()).isEqualTo(Gold.of(111));
+    }
+
+    @Test
+    public void shouldMakeEveryEventDurable_whenAppendingConcurrently() throws Exception{
+        // Arrange
+        Path journalFile = journalDir.resolve("hero-journal.log");
+        int threads = 8;
+        int eventsPerThread = 5_000;
+        Hero hero = hero(7);
+
+        // Act
+        try(HeroJournal journal = new HeroJournal(journalFile, 64 * HeroJournal.RECORD_SIZE)){
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+            for(int thread = 0; thread < threads; thread++){
+                executor.execute(() -> {
+                    for(int event = 0; event < eventsPerThread; event++){
+                        journal.awaitDurable(journal.append(HeroJournal.EventType.INCREASE_LOCKPICKING, 7, 1));
+                    }
+                });
+            }
+
+            executor.shutdown();
+            assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        }
+
+        // Assert
+        try(HeroJournal journal = new HeroJournal(journalFile, HeroJournal.DEFAULT_BATCH_SIZE)){
+            assertThat(journal.recover(id -> hero, Hero::getJournalSeq, (restored, value) -> {}))
+                    .isEqualTo(threads * eventsPerThread);
+        }
+
+        assertThat(hero.getLockpickingLevel()).isEqualTo(threads * eventsPerThread);
+    }
+
+    @Test
+    public void shouldAppendForOtherHeroes_whileMutationIsRunning() throws Exception{
+        // Arrange
+        Path journalFile = journalDir.resolve("hero-journal.log");
+        CountDownLatch mutationStarted = new CountDownLatch(1);
+        CountDownLatch mutationReleased = new CountDownLatch(1);
+        Hero slowHero = hero(7);
+        Hero otherHero = hero(8);
+
+        // Act
+        try(HeroJournal journal = new HeroJournal(journalFile, HeroJournal.DEFAULT_BATCH_SIZE)){
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            Future<Long> slowSeq = executor.submit(() -> journal.append(HeroJournal.EventType.LEVEL_UP, 7, 1
+                    , seq -> {
+                        mutationStarted.countDown();
+                        await(mutationReleased);
+                    }));
+            await(mutationStarted);
+
+            long otherSeq = journal.append(HeroJournal.EventType.LEVEL_UP, 8, 1);
+            mutationReleased.countDown();
+            journal.awaitDurable(otherSeq);
+            executor.shutdown();
+
+            // Assert
+            assertThat(slowSeq.get()).isEqualTo(1);
+            assertThat(otherSeq).isEqualTo(2);
+        }
+
+        try(HeroJournal journal = new HeroJournal(journalFile, HeroJournal.DEFAULT_BATCH_SIZE)){
+            journal.recover(id -> id == 7 ? slowHero : otherHero, Hero::getJournalSeq, (restored, value) -> {});
+        }
+
+        assertThat(slowHero.getJournalSeq()).isEqualTo(1);
+        assertThat(otherHero.getJournalSeq()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldSkipEvent_whenMutationFails() throws Exception{
+        // Arrange
+        Path journalFile = journalDir.resolve("hero-journal.log");
+        Hero hero = hero(7);
+
+        try(HeroJournal journal = new HeroJournal(journalFile, HeroJournal.DEFAULT_BATCH_SIZE)){
+            try {
+                journal.append(HeroJournal.EventType.LEVEL_UP, 7, 1, seq -> {
+                    throw new IllegalStateException("mutation failed");
+                });
+            } catch (IllegalStateException expected) {
+            }
+
+            journal.awaitDurable(journal.append(HeroJournal.EventType.LEVEL_UP, 7, 1));
+        }
+
+        // Act
+        try(HeroJournal journal = new HeroJournal(journalFile, HeroJournal.DEFAULT_BATCH_SIZE)){
+            // Assert
+            assertThat(journal.recover(id -> hero, Hero::getJournalSeq, (restored, value) -> {})).isEqualTo(2);
+        }
+
+        assertThat(hero.getLevel()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldRestoreBuffWithTimeLeft_andDropExpiredOrClearedBuffs() throws Exception{
+        // Arrange
+        Path journalFile = journalDir.resolve("hero-journal.log");
+        long now = System.currentTimeMillis();
+        long liveBuff = HeroJournal.buffValue(new SuperBuff(BuffDefinition.of("live", BuffType.OFFENSIVE)), now);
+        long expiredBuff = HeroJournal.buffValue(new Buff(BuffDefinition.of("expired", BuffType.DEFENSIVE))
+                , now - TimeUnit.MINUTES.toMillis(5));
+        long clearedBuff = HeroJournal.buffValue(new Buff(BuffDefinition.of("cleared", BuffType.DEFENSIVE)), now);
+        Hero liveHero = hero(7);
+        Hero expiredHero = hero(8);
+        Hero clearedHero = hero(9);
+        List<Hero> restoredHeroes = new ArrayList<>();
+
+        try(HeroJournal journal = new HeroJournal(journalFile, HeroJournal.DEFAULT_BATCH_SIZE)){
+            journal.append(HeroJournal.EventType.SET_BUFF, 7, liveBuff);
+            journal.append(HeroJournal.EventType.SET_BUFF, 8, expiredBuff);
+            journal.append(HeroJournal.EventType.SET_BUFF, 9, clearedBuff);
+            journal.append(HeroJournal.EventType.CLEAR_BUFF, 7, clearedBuff);
+            journal.awaitDurable(journal.append(HeroJournal.EventType.CLEAR_BUFF, 9, clearedBuff));
+        }
+
+        // Act
+        try(HeroJournal journal = new HeroJournal(journalFile, HeroJournal.DEFAULT_BATCH_SIZE)){
+            journal.recover(id -> id == 7 ? liveHero : id == 8 ? expiredHero : clearedHero, Hero::getJournalSeq
+                    , (restored, value) -> restoredHeroes.add(restored));
+        }
+
+        // Assert
+        assertThat(liveHero.getActiveBuff()).isInstanceOf(SuperBuff.class);
+        assertThat(liveHero.getActiveBuff().getBuffType()).isEqualTo(BuffType.OFFENSIVE);
+        assertThat(liveHero.getActiveBuff().getTimeLeft()).isBetween(BuffDefinition.DEFAULT_DURATION - 5
+                , BuffDefinition.DEFAULT_DURATION);
+        assertThat(expiredHero.getActiveBuff()).isNull();
+        assertThat(clearedHero.getActiveBuff()).isNull();
+        assertThat(restoredHeroes).containsExactly(liveHero);
+    }
+
+    private static void await(CountDownLatch latch){
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Hero hero(long id){
+        Hero hero = new Hero();
+        hero.setId(id);
+        hero.setLevel(1);
+        hero.setLockpickingLevel(0);
+
+        return hero;
+    }
+}
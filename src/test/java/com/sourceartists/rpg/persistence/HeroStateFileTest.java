@@ -0,0 +1,113 @@
+package com.sourceartists.rpg.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sourceartists.rpg.model.Buff;
+import com.sourceartists.rpg.model.BuffType;
+import com.sourceartists.rpg.model.Gold;
+import com.sourceartists.rpg.model.Hero;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class HeroStateFileTest {
+
+    @TempDir
+    Path stateDir;
+
+    @Test
+    public void shouldReadBackHeroState_afterReopening() throws Exception{
+        // Arrange
+        Path stateFile = stateDir.resolve("hero-state.dat");
+        Hero hero = new Hero();
+        hero.setId(42L);
+        hero.setLevel(7);
+        hero.setMoraleLevel(3);
+        hero.setStrength(15);
+        hero.setLockpickingLevel(31);
+        hero.setGoldMinorUnits(Gold.of(250));
+        hero.setAlive(true);
+        hero.setActiveBuff(new Buff("Rage", BuffType.OFFENSIVE));
+
+        try(HeroStateFile heroStates = HeroStateFile.open(stateFile, 16)){
+            heroStates.write(hero, 5);
+            heroStates.update(hero, HeroJournal.EventType.LEVEL_UP, 1, 6);
+            heroStates.update(hero, HeroJournal.EventType.ADD_MONEY, Gold.of(50), 7);
+        }
+
+        Hero reloaded = new Hero();
+
+        // Act
+        try(HeroStateFile heroStates = HeroStateFile.open(stateFile, 1)){
+            int row = heroStates.find(42L);
+            heroStates.readInto(row, reloaded);
+
+            // Assert
+            assertThat(heroStates.capacity()).isEqualTo(16);
+            assertThat(heroStates.find(43L)).isEqualTo(-1);
+            assertThat(heroStates.getActiveBuffType(row)).isEqualTo(BuffType.OFFENSIVE.ordinal());
+        }
+
+        assertThat(reloaded.getLevel()).isEqualTo(8);
+        assertThat(reloaded.getMoraleLevel()).isEqualTo(3);
+        assertThat(reloaded.getStrength()).isEqualTo(15);
+        assertThat(reloaded.getLockpickingLevel()).isEqualTo(31);
+        assertThat(reloaded.getGoldMinorUnits()).isEqualTo(Gold.of(300));
+        assertThat(reloaded.isAlive()).isTrue();
+        assertThat(reloaded.getJournalSeq()).isEqualTo(7);
+    }
+
+    @Test
+    public void shouldFindEveryHero_whenFileIsFull() throws Exception{
+        // Arrange
+        Path stateFile = stateDir.resolve("hero-state.dat");
+        int capacity = 1000;
+
+        try(HeroStateFile heroStates = HeroStateFile.open(stateFile, capacity)){
+            for(long heroId = 0; heroId < capacity; heroId++){
+                heroStates.allocate(heroId * 1024);
+            }
+        }
+
+        // Act
+        try(HeroStateFile heroStates = HeroStateFile.open(stateFile, capacity)){
+
+            // Assert
+            for(int row = 0; row < capacity; row++){
+                assertThat(heroStates.find(row * 1024L)).isEqualTo(row);
+            }
+            assertThat(heroStates.find(1L)).isEqualTo(-1);
+            assertThat(heroStates.allocate(1L)).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    public void shouldRejectFile_whenShorterThanHeader() throws Exception{
+        // Arrange
+        Path stateFile = stateDir.resolve("hero-state.dat");
+        Files.write(stateFile, new byte[]{0x52, 0x50, 0x47, 0x48});
+
+        // Act & Assert
+        assertThatThrownBy(() -> HeroStateFile.open(stateFile, 16))
+                .isInstanceOf(IOException.class);
+        assertThat(Files.size(stateFile)).isEqualTo(4L);
+    }
+
+    @Test
+    public void shouldRejectFile_whenRecordsAreTruncated() throws Exception{
+        // Arrange
+        Path stateFile = stateDir.resolve("hero-state.dat");
+        HeroStateFile.open(stateFile, 16).close();
+        byte[] header = new byte[64];
+        System.arraycopy(Files.readAllBytes(stateFile), 0, header, 0, header.length);
+        Files.write(stateFile, header);
+
+        // Act & Assert
+        assertThatThrownBy(() -> HeroStateFile.open(stateFile, 16))
+                .isInstanceOf(IOException.class);
+    }
+}